@@ -0,0 +1,108 @@
+package dev.team.hytalib.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Getter throughput of the snapshot-based {@link Configuration} against the monitor-based getters it
+ * replaced ({@link MonitorConfiguration}), with 1, 4 and 16 reader threads. Each operation reads four
+ * values of different types, like a typical hot-path check does.
+ * <pre>{@code
+ * ./gradlew jmh
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigReadBenchmark {
+
+    private Path directory;
+    private Configuration snapshot;
+    private MonitorConfiguration monitor;
+
+    @Setup
+    public void setup() throws IOException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("host", "localhost");
+        values.put("port", 3306);
+        values.put("pvp-enabled", true);
+        values.put("spawn-radius", 48.5);
+        for (int i = 0; i < 64; i++) values.put("filler-" + i, "value-" + i);
+
+        directory = Files.createTempDirectory("hytalib-jmh");
+        snapshot = new Configuration(directory.resolve("config.yml"));
+        snapshot.applyDefaults(values);
+        monitor = new MonitorConfiguration(values);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void snapshot_1(Blackhole bh) {
+        readSnapshot(bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void snapshot_4(Blackhole bh) {
+        readSnapshot(bh);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void snapshot_16(Blackhole bh) {
+        readSnapshot(bh);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void monitor_1(Blackhole bh) {
+        readMonitor(bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void monitor_4(Blackhole bh) {
+        readMonitor(bh);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void monitor_16(Blackhole bh) {
+        readMonitor(bh);
+    }
+
+    private void readSnapshot(Blackhole bh) {
+        bh.consume(snapshot.getString("host", ""));
+        bh.consume(snapshot.getInt("port", 0));
+        bh.consume(snapshot.getBoolean("pvp-enabled", false));
+        bh.consume(snapshot.getDouble("spawn-radius", 0.0));
+    }
+
+    private void readMonitor(Blackhole bh) {
+        bh.consume(monitor.getString("host", ""));
+        bh.consume(monitor.getInt("port", 0));
+        bh.consume(monitor.getBoolean("pvp-enabled", false));
+        bh.consume(monitor.getDouble("spawn-radius", 0.0));
+    }
+}
@@ -0,0 +1,52 @@
+package dev.team.hytalib.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * The getters of {@link Configuration} as they were before snapshot reads: every read takes the
+ * instance monitor, which {@code set()} also holds while it writes the file. Kept only as the
+ * baseline of {@link ConfigReadBenchmark}.
+ */
+final class MonitorConfiguration {
+
+    private final Map<String, Object> data = new LinkedHashMap<>();
+
+    MonitorConfiguration(Map<String, Object> values) {
+        data.putAll(values);
+    }
+
+    public synchronized String getString(String key, String def) {
+        Object o = data.get(key);
+        return o == null ? def : String.valueOf(o);
+    }
+
+    public synchronized int getInt(String key, int def) {
+        Object o = data.get(key);
+        if (o instanceof Number) return ((Number) o).intValue();
+        if (o instanceof String) {
+            try { return Integer.parseInt((String) o); }
+            catch (NumberFormatException ignored) {}
+        }
+        return def;
+    }
+
+    public synchronized boolean getBoolean(String key, boolean def) {
+        Object o = data.get(key);
+        if (o instanceof Boolean) return (Boolean) o;
+        if (o instanceof String) return Boolean.parseBoolean((String) o);
+        return def;
+    }
+
+    public synchronized double getDouble(String key, double def) {
+        Object o = data.get(key);
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        if (o instanceof String) {
+            try { return Double.parseDouble((String) o); }
+            catch (NumberFormatException ignored) {}
+        }
+        return def;
+    }
+}
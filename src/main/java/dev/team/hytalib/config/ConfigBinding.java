@@ -0,0 +1,84 @@
+package dev.team.hytalib.config;
+
+import dev.team.hytalib.core.PluginLogger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A config section bound to an immutable record.
+ * The record is rebuilt whenever the section changes; hot code should read {@link #get()}
+ * and keep working with plain final fields.
+ */
+public final class ConfigBinding<R extends Record> {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private final Configuration config;
+    private final String path;
+    private final RecordBinder<R> binder;
+    private final List<Consumer<R>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile R value;
+    private Object source;
+
+    ConfigBinding(Configuration config, String path, Class<R> type) {
+        this.config = config;
+        this.path = path;
+        this.binder = RecordBinder.of(type);
+    }
+
+    public R get() {
+        return value;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Registers a callback that receives every new instance published after a reload or change.
+     */
+    public ConfigBinding<R> onReload(Consumer<R> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Stops tracking changes. {@link #get()} keeps returning the last bound instance.
+     */
+    public void unbind() {
+        config.unbind(this);
+    }
+
+    /**
+     * Binds the section in {@code snapshot} without publishing it.
+     * Returns {@code null} when the section is unchanged since the last bind.
+     */
+    R prepare(ConfigSnapshot snapshot) {
+        Object section = path.isEmpty() ? snapshot.root : snapshot.get(path);
+        if (section == source && value != null) return null;
+        if (!(section instanceof Map<?, ?> map))
+            throw new IllegalStateException("Missing config section '" + path + "' for " + binder.typeName());
+        return binder.bind(path, map);
+    }
+
+    void publish(ConfigSnapshot snapshot, R next) {
+        this.source = path.isEmpty() ? snapshot.root : snapshot.get(path);
+        this.value = next;
+    }
+
+    void fireReload(R next) {
+        for (Consumer<R> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                LOGGER.error("Reload listener for '" + path + "' failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package dev.team.hytalib.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Compact binary copy of a parsed config, stored next to it as {@code .<name>.cache}.
+ * The cache is only used while the source file's mtime, size and CRC32C still match,
+ * so it can never serve stale values; any unreadable cache is simply ignored.
+ */
+final class ConfigCache {
+
+    private static final int MAGIC = 0x484C4346; // "HLCF"
+    private static final byte VERSION = 1;
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private static final byte NULL = 0, TRUE = 1, FALSE = 2, INT = 3, LONG = 4, DOUBLE = 5,
+            STRING = 6, LIST = 7, MAP = 8, BIG_INTEGER = 9;
+
+    private final Path cacheFile;
+
+    ConfigCache(Path source) {
+        this.cacheFile = source.resolveSibling("." + source.getFileName() + ".cache");
+    }
+
+    static Key key(Path source, byte[] content) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return new Key(Files.getLastModifiedTime(source).toMillis(), content.length, crc.getValue());
+    }
+
+    /**
+     * @return the cached tree as read-only maps/lists, or {@code null} if there is no valid cache for {@code key}
+     */
+    Map<String, Object> load(Key key) {
+        try {
+            if (!Files.exists(cacheFile)) return null;
+
+            ByteBuffer in;
+            try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+                long size = channel.size();
+                in = size >= MAP_THRESHOLD
+                        ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                        : ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+            }
+
+            if (in.getInt() != MAGIC || in.get() != VERSION) return null;
+            if (in.getLong() != key.mtime || in.getLong() != key.size || in.getLong() != key.crc) return null;
+
+            Object root = new Decoder(in).read();
+            if (!(root instanceof Map<?, ?>)) return null;
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) root;
+            return map;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    void store(Key key, Map<String, Object> root) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(key.mtime);
+            out.writeLong(key.size);
+            out.writeLong(key.crc);
+            write(out, root);
+            out.flush();
+
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | IllegalArgumentException e) {
+            // unsupported value type or unwritable directory: run without a cache
+            delete();
+        }
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(cacheFile);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof BigInteger bi) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, bi.toString());
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object o : list) write(out, o);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (var e : map.entrySet()) {
+                writeString(out, (String) e.getKey());
+                write(out, e.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot cache config value of type " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    record Key(long mtime, long size, long crc) {
+    }
+
+    private static final class Decoder {
+
+        private final ByteBuffer in;
+        private byte[] scratch = new byte[64];
+
+        private Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+
+        Object read() {
+            byte tag = in.get();
+            return switch (tag) {
+                case NULL -> null;
+                case TRUE -> Boolean.TRUE;
+                case FALSE -> Boolean.FALSE;
+                case INT -> in.getInt();
+                case LONG -> in.getLong();
+                case DOUBLE -> in.getDouble();
+                case BIG_INTEGER -> new BigInteger(readString());
+                case STRING -> readString();
+                case LIST -> {
+                    int size = in.getInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) list.add(read());
+                    yield Collections.unmodifiableList(list);
+                }
+                case MAP -> {
+                    int size = in.getInt();
+                    Map<String, Object> map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++) {
+                        String key = readString();
+                        map.put(key, read());
+                    }
+                    yield Collections.unmodifiableMap(map);
+                }
+                default -> throw new IllegalStateException("Corrupt config cache (tag " + tag + ")");
+            };
+        }
+
+        private String readString() {
+            int length = in.getInt();
+            if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package dev.team.hytalib.config;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Callback for a watched config path. {@code oldValue}/{@code newValue} are {@code null}
+ * when the path was added or removed; sections are passed as read-only maps.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+    void onChange(String path, Object oldValue, Object newValue);
+}
@@ -0,0 +1,19 @@
+package dev.team.hytalib.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Text format behind a {@link Configuration}. Implementations must be thread-safe.
+ */
+interface ConfigCodec {
+
+    /**
+     * @return the top-level section, or {@code null} if the document is not a map
+     */
+    Map<?, ?> read(String content) throws IOException;
+
+    String write(Map<String, Object> data) throws IOException;
+}
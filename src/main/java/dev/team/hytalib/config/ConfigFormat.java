@@ -1,5 +1,7 @@
 package dev.team.hytalib.config;
 
+import java.util.Locale;
+
 /**
  * HytaLab Studio code @ 2025
  * <p>
@@ -7,5 +9,19 @@ package dev.team.hytalib.config;
  */
 public enum ConfigFormat {
     YAML,
-    JSON
-}
\ No newline at end of file
+    JSON;
+
+    /**
+     * Picks the format from the file extension ({@code .json} is JSON, anything else YAML).
+     */
+    public static ConfigFormat fromFileName(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : YAML;
+    }
+
+    ConfigCodec createCodec() {
+        return switch (this) {
+            case YAML -> new YamlCodec();
+            case JSON -> new JsonCodec();
+        };
+    }
+}
\ No newline at end of file
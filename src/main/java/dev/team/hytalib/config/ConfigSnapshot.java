@@ -0,0 +1,235 @@
+package dev.team.hytalib.config;
+
+import java.util.*;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Immutable view of a configuration tree plus a flattened index of every dotted path
+ * ("data.sql-enabled") to its pre-converted value.
+ */
+final class ConfigSnapshot {
+
+    static final ConfigSnapshot EMPTY = new ConfigSnapshot(Collections.emptyMap(), new HashMap<>());
+
+    final Map<String, Object> root;
+    final Map<String, ConfigValue> index;
+
+    private ConfigSnapshot(Map<String, Object> root, Map<String, ConfigValue> index) {
+        this.root = root;
+        this.index = index;
+    }
+
+    /**
+     * Builds a snapshot from a freshly parsed tree. The tree is deep-copied into read-only maps and lists.
+     */
+    static ConfigSnapshot of(Map<?, ?> tree) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> root = (Map<String, Object>) freeze(tree);
+        Map<String, ConfigValue> index = new HashMap<>();
+        indexChildren(index, null, "", root);
+        return new ConfigSnapshot(root, index);
+    }
+
+    /**
+     * Returns every path whose value differs between the two snapshots, including the parent sections
+     * of changed keys. Sections themselves are never compared deeply; their children are.
+     */
+    static Set<String> diff(ConfigSnapshot before, ConfigSnapshot after) {
+        Set<String> touched = new HashSet<>();
+        after.index.forEach((path, value) -> {
+            ConfigValue old = before.index.get(path);
+            if (old == null || !sameLeaf(old.raw, value.raw)) touch(touched, path);
+        });
+        before.index.forEach((path, value) -> {
+            if (!after.index.containsKey(path)) touch(touched, path);
+        });
+        return touched;
+    }
+
+    private static boolean sameLeaf(Object a, Object b) {
+        if (a instanceof Map && b instanceof Map) return true;
+        return Objects.equals(a, b);
+    }
+
+    private static void touch(Set<String> touched, String path) {
+        if (touched == null) return;
+        while (touched.add(path)) {
+            int dot = path.lastIndexOf('.');
+            if (dot < 0) return;
+            path = path.substring(0, dot);
+        }
+    }
+
+    /**
+     * Builds a snapshot from a tree that is already made of read-only maps and lists (e.g. the binary cache).
+     */
+    static ConfigSnapshot ofFrozen(Map<String, Object> root) {
+        Map<String, ConfigValue> index = new HashMap<>();
+        indexChildren(index, null, "", root);
+        return new ConfigSnapshot(root, index);
+    }
+
+    ConfigValue lookup(String path) {
+        return index.get(path);
+    }
+
+    Object get(String path) {
+        ConfigValue v = index.get(path);
+        return v == null ? null : v.raw;
+    }
+
+    Mutation edit() {
+        return new Mutation(this);
+    }
+
+    static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(String.valueOf(k), freeze(v)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Collection<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object o : list) copy.add(freeze(o));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static String child(String prefix, String key) {
+        return prefix.isEmpty() ? key : prefix + "." + key;
+    }
+
+    private static void indexChildren(Map<String, ConfigValue> index, Set<String> touched, String prefix, Map<?, ?> section) {
+        section.forEach((k, v) -> indexValue(index, touched, child(prefix, (String) k), v));
+    }
+
+    private static void indexValue(Map<String, ConfigValue> index, Set<String> touched, String path, Object value) {
+        index.put(path, ConfigValue.of(value));
+        touch(touched, path);
+        if (value instanceof Map<?, ?> map) indexChildren(index, touched, path, map);
+    }
+
+    private static void unindexValue(Map<String, ConfigValue> index, Set<String> touched, String path, Object value) {
+        if (index.remove(path) != null) touch(touched, path);
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> unindexValue(index, touched, child(path, (String) k), v));
+        }
+    }
+
+    /**
+     * Copy-on-write edit of a snapshot. Only the sections along a touched path are copied,
+     * and only the index entries below that path are recomputed.
+     */
+    static final class Mutation implements Configuration.Editor {
+
+        private final Map<String, Object> root;
+        private final Map<String, ConfigValue> index;
+        private final Map<Object, Map<String, Object>> owned = new IdentityHashMap<>();
+        private final Map<String, Object> rootView;
+        private final Set<String> touched = new HashSet<>();
+        private boolean changed;
+
+        private Mutation(ConfigSnapshot base) {
+            this.root = new LinkedHashMap<>(base.root);
+            this.rootView = Collections.unmodifiableMap(root);
+            this.index = new HashMap<>(base.index);
+        }
+
+        boolean changed() {
+            return changed;
+        }
+
+        /**
+         * Every path that was written or removed by this mutation, plus their parent sections.
+         */
+        Set<String> touched() {
+            return touched;
+        }
+
+        ConfigSnapshot build() {
+            return new ConfigSnapshot(rootView, index);
+        }
+
+        @Override
+        public Configuration.Editor set(String path, Object value) {
+            String[] keys = path.split("\\.");
+            Map<String, Object> section = sectionFor(keys, true);
+            String leaf = keys[keys.length - 1];
+
+            Object old = section.get(leaf);
+            unindexValue(index, touched, path, old);
+
+            Object frozen = freeze(value);
+            section.put(leaf, frozen);
+            indexValue(index, touched, path, frozen);
+            changed = true;
+            return this;
+        }
+
+        @Override
+        public Configuration.Editor remove(String path) {
+            if (!index.containsKey(path)) return this;
+
+            String[] keys = path.split("\\.");
+            Map<String, Object> section = sectionFor(keys, false);
+            String leaf = keys[keys.length - 1];
+            if (section == null || !section.containsKey(leaf)) {
+                // literal dotted key stored at the top level
+                if (!root.containsKey(path)) return this;
+                section = root;
+                leaf = path;
+            }
+
+            unindexValue(index, touched, path, section.remove(leaf));
+            changed = true;
+            return this;
+        }
+
+        @Override
+        public Configuration.Editor setDefault(String path, Object value) {
+            if (!index.containsKey(path)) set(path, value);
+            return this;
+        }
+
+        /**
+         * Returns a writable copy of the section holding the last key of {@code keys},
+         * copying (or, if {@code create}, creating) every parent section on the way.
+         */
+        private Map<String, Object> sectionFor(String[] keys, boolean create) {
+            Map<String, Object> section = root;
+            String path = "";
+
+            for (int i = 0; i < keys.length - 1; i++) {
+                String key = keys[i];
+                path = child(path, key);
+                Object current = section.get(key);
+
+                Map<String, Object> next;
+                if (current instanceof Map<?, ?> map) {
+                    next = owned.get(map);
+                    if (next == null) {
+                        next = new LinkedHashMap<>();
+                        for (var e : map.entrySet()) next.put((String) e.getKey(), e.getValue());
+                    }
+                } else if (create) {
+                    unindexValue(index, touched, path, current);
+                    next = new LinkedHashMap<>();
+                } else {
+                    return null;
+                }
+
+                if (!owned.containsKey(current)) {
+                    Map<String, Object> view = Collections.unmodifiableMap(next);
+                    owned.put(view, next);
+                    section.put(key, view);
+                    index.put(path, ConfigValue.of(view));
+                    touch(touched, path);
+                }
+                section = next;
+            }
+            return section;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package dev.team.hytalib.config;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A single indexed config value with its primitive conversions done up front,
+ * so typed getters never parse or box on the read path.
+ */
+final class ConfigValue {
+
+    final Object raw;
+    final String string;
+
+    final boolean isInt;
+    final int intValue;
+    final boolean isLong;
+    final long longValue;
+    final boolean isDouble;
+    final double doubleValue;
+    final boolean isBoolean;
+    final boolean booleanValue;
+
+    private ConfigValue(Object raw) {
+        this.raw = raw;
+
+        boolean container = raw instanceof Map || raw instanceof Collection;
+        this.string = raw == null || container ? null : String.valueOf(raw);
+
+        if (raw instanceof Number n) {
+            isInt = isLong = isDouble = true;
+            intValue = n.intValue();
+            longValue = n.longValue();
+            doubleValue = n.doubleValue();
+        } else if (raw instanceof String s) {
+            Long l = parseLong(s);
+            isLong = l != null;
+            longValue = isLong ? l : 0L;
+            isInt = isLong && longValue == (int) longValue;
+            intValue = isInt ? (int) longValue : 0;
+
+            Double d = parseDouble(s);
+            isDouble = d != null;
+            doubleValue = isDouble ? d : 0.0;
+        } else {
+            isInt = isLong = isDouble = false;
+            intValue = 0;
+            longValue = 0L;
+            doubleValue = 0.0;
+        }
+
+        if (raw instanceof Boolean b) {
+            isBoolean = true;
+            booleanValue = b;
+        } else if (raw instanceof String s) {
+            isBoolean = true;
+            booleanValue = Boolean.parseBoolean(s);
+        } else {
+            isBoolean = false;
+            booleanValue = false;
+        }
+    }
+
+    static ConfigValue of(Object raw) {
+        return new ConfigValue(raw);
+    }
+
+    private static Long parseLong(String s) {
+        try { return Long.parseLong(s); }
+        catch (NumberFormatException ignored) { return null; }
+    }
+
+    private static Double parseDouble(String s) {
+        try { return Double.parseDouble(s); }
+        catch (NumberFormatException ignored) { return null; }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.team.hytalib.config;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * One WatchService and one thread shared by every watched Configuration.
+ * Events are only routed here; debouncing and parsing happen on the config IO thread.
+ */
+final class ConfigWatcher {
+
+    private static final ConfigWatcher INSTANCE = new ConfigWatcher();
+
+    private final Map<Path, Set<Configuration>> files = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private WatchService service;
+
+    private ConfigWatcher() {}
+
+    static ConfigWatcher get() {
+        return INSTANCE;
+    }
+
+    synchronized void register(Path file, Configuration config) {
+        Path target = file.toAbsolutePath().normalize();
+        Path dir = target.getParent();
+
+        try {
+            if (service == null) start();
+            if (!directories.containsKey(dir)) {
+                directories.put(dir, dir.register(service, ENTRY_CREATE, ENTRY_MODIFY));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch configuration: " + file, e);
+        }
+
+        files.computeIfAbsent(target, k -> ConcurrentHashMap.newKeySet()).add(config);
+    }
+
+    synchronized void unregister(Path file, Configuration config) {
+        Path target = file.toAbsolutePath().normalize();
+        Set<Configuration> configs = files.get(target);
+        if (configs == null || !configs.remove(config)) return;
+        if (configs.isEmpty()) files.remove(target);
+
+        Path dir = target.getParent();
+        boolean dirInUse = files.keySet().stream().anyMatch(p -> dir.equals(p.getParent()));
+        if (!dirInUse) {
+            WatchKey key = directories.remove(dir);
+            if (key != null) key.cancel();
+        }
+    }
+
+    private void start() throws IOException {
+        service = FileSystems.getDefault().newWatchService();
+
+        Thread thread = new Thread(this::run, "Hytalib-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    files.forEach((file, configs) -> {
+                        if (dir.equals(file.getParent())) configs.forEach(Configuration::fileChanged);
+                    });
+                    continue;
+                }
+
+                Set<Configuration> configs = files.get(dir.resolve((Path) event.context()));
+                if (configs != null) configs.forEach(Configuration::fileChanged);
+            }
+            key.reset();
+        }
+    }
+}
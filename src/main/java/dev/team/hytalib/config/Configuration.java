@@ -1,51 +1,126 @@
 package dev.team.hytalib.config;
 
-import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.LoaderOptions;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.SafeConstructor;
-import org.yaml.snakeyaml.representer.Representer;
+import dev.team.hytalib.core.Counter;
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.Metrics;
+import dev.team.hytalib.core.MetricsRegistry;
+import dev.team.hytalib.core.PluginLogger;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * HytaLab Studio code @ 2025
  * <p>
- * Clean, self-contained YAML configuration manager.
+ * Clean, self-contained YAML / JSON configuration manager.
  * This handles:
  *  - file creation
  *  - folder creation
  *  - autoloading
  *  - optional default values
+ *  - optional write-behind saving (mutations are coalesced and flushed in the background)
+ * <p>
+ * Reads never block: getters work on an immutable snapshot that is swapped atomically
+ * whenever the config is reloaded or changed (copy-on-write).
+ * <p>
+ * Keys are dotted paths into nested sections, e.g. {@code getBoolean("data.sql-enabled")}.
+ * Every path is indexed once per load/change together with its converted int/long/double/boolean
+ * value, so typed getters are a single hash lookup.
+ * <p>
+ * Sections can be bound to records with {@link #bind(String, Class)}; bound records are rebuilt
+ * and validated whenever their section changes.
+ * <p>
+ * With {@link #watch()} the file is reloaded automatically when it is edited on disk, and
+ * {@link #onChange(String, ConfigChangeListener)} listeners fire only for paths whose value actually changed.
+ * <p>
+ * Reads, changes, loads and saves are counted in the {@linkplain MetricsRegistry#library() library metrics},
+ * labelled with the file path.
+ * <p>
+ * Use {@link ConfigurationBuilder} to pick the format explicitly or to enable the binary startup cache.
  */
 public final class Configuration {
 
-    private final Path file;
-    private final Yaml yaml;
-    private Map<String, Object> data;
+    public static final long DEFAULT_FLUSH_DELAY_MS = 1000L;
+    public static final long DEFAULT_WATCH_DEBOUNCE_MS = 250L;
+    /** Upper bound of the retry delay after failed background saves. */
+    static final long MAX_RETRY_DELAY_MS = 60_000L;
 
-    public Configuration(Path file) {
-        this.file = file;
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
 
-        LoaderOptions loaderOptions = new LoaderOptions();
-        loaderOptions.setMaxAliasesForCollections(50);
+    private static final ScheduledExecutorService IO = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Hytalib-ConfigIO");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-        SafeConstructor constructor = new SafeConstructor(loaderOptions);
+    private final Path file;
+    private final ConfigFormat format;
+    private final ConfigCodec codec;
+    private final ConfigCache cache;
+    private final long flushDelayMs;
+    private final Object ioLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /** Background saves that failed in a row; only touched on the IO thread. */
+    private int failedFlushes;
+    private final List<ConfigBinding<?>> bindings = new CopyOnWriteArrayList<>();
+    private final List<PathListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ConfigSnapshot data;
+    private boolean dirty;
+
+    private volatile FileTime lastWritten;
+    private long watchDebounceMs = -1L;
+    private ScheduledFuture<?> pendingReload;
+
+    private final Counter reads;
+    private final Counter writes;
+    private final Counter reloads;
+    private final Counter flushFailures;
+    private final LatencyHistogram loadNanos;
+    private final LatencyHistogram flushNanos;
 
-        DumperOptions dumper = new DumperOptions();
-        dumper.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        dumper.setIndent(2);
-        dumper.setPrettyFlow(true);
+    public Configuration(Path file) {
+        this(file, 0L);
+    }
 
-        Representer representer = new Representer(dumper);
+    /**
+     * @param flushDelayMs write-behind window in milliseconds. Changes made within the window are
+     *                     written in a single save; {@code 0} saves synchronously on every change.
+     */
+    public Configuration(Path file, long flushDelayMs) {
+        this(file, ConfigFormat.fromFileName(file.getFileName().toString()), flushDelayMs, false);
+    }
 
-        this.yaml = new Yaml(constructor, representer, dumper, loaderOptions);
+    Configuration(Path file, ConfigFormat format, long flushDelayMs, boolean binaryCache) {
+        this.file = file;
+        this.format = format;
+        this.codec = format.createCodec();
+        this.cache = binaryCache ? new ConfigCache(file) : null;
+        this.flushDelayMs = Math.max(0L, flushDelayMs);
+
+        Metrics metrics = MetricsRegistry.get().library();
+        String name = file.toString();
+        this.reads = metrics.counter("config_reads_total", "file", name);
+        this.writes = metrics.counter("config_writes_total", "file", name);
+        this.reloads = metrics.counter("config_reloads_total", "file", name);
+        this.flushFailures = metrics.counter("config_flush_failures_total", "file", name);
+        this.loadNanos = metrics.histogram("config_load_nanos", "file", name);
+        this.flushNanos = metrics.histogram("config_flush_nanos", "file", name);
 
         initFile();
-        loadInternal();
+        this.data = readSnapshot();
     }
 
     private void initFile() {
@@ -56,183 +131,412 @@ public final class Configuration {
 
             if (!Files.exists(file)) {
                 Files.createFile(file);
-                this.data = new LinkedHashMap<>();
-                saveInternal();
+                this.data = ConfigSnapshot.EMPTY;
+                this.dirty = true;
+                flush();
             }
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize config file: " + file, e);
         }
     }
 
-    private synchronized void loadInternal() {
+    private ConfigSnapshot readSnapshot() {
+        long start = System.nanoTime();
         try {
-            String content = Files.readString(file);
+            byte[] bytes = Files.readAllBytes(file);
+            ConfigCache.Key key = cache != null ? ConfigCache.key(file, bytes) : null;
 
-            if (content.isBlank()) {
-                this.data = new LinkedHashMap<>();
-                return;
+            if (key != null) {
+                Map<String, Object> cached = cache.load(key);
+                if (cached != null) return ConfigSnapshot.ofFrozen(cached);
             }
 
-            Object loaded = yaml.load(content);
-            if (loaded instanceof Map) {
-                //noinspection unchecked
-                this.data = (Map<String, Object>) loaded;
-            } else {
-                this.data = new LinkedHashMap<>();
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            if (content.isBlank()) {
+                return ConfigSnapshot.EMPTY;
             }
 
+            Map<?, ?> loaded = codec.read(content);
+            ConfigSnapshot snapshot = loaded != null ? ConfigSnapshot.of(loaded) : ConfigSnapshot.EMPTY;
+            if (key != null) IO.execute(() -> cache.store(key, snapshot.root));
+            return snapshot;
+
         } catch (Exception e) {
             throw new RuntimeException("Failed to load configuration: " + file, e);
+        } finally {
+            loadNanos.record(System.nanoTime() - start);
         }
     }
 
-    private synchronized void saveInternal() {
-        try (Writer writer = new FileWriter(file.toFile())) {
-            yaml.dump(this.data, writer);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not save configuration: " + file, e);
+    /**
+     * Rebinds every bound record against {@code next} and, if all of them are valid, swaps the snapshot in.
+     * Must hold the monitor. Returns the reload and change callbacks to run once the monitor is released.
+     */
+    private List<Runnable> install(ConfigSnapshot next, Set<String> touched) {
+        ConfigSnapshot previous = this.data;
+        List<Runnable> commits = new ArrayList<>();
+        List<Runnable> callbacks = new ArrayList<>();
+        for (ConfigBinding<?> binding : bindings) stage(binding, next, commits, callbacks);
+
+        if (!touched.isEmpty()) {
+            for (PathListener pl : listeners) {
+                if (!pl.path.isEmpty() && !touched.contains(pl.path)) continue;
+
+                Object before = pl.path.isEmpty() ? previous.root : previous.get(pl.path);
+                Object after = pl.path.isEmpty() ? next.root : next.get(pl.path);
+                if (!Objects.equals(before, after)) callbacks.add(() -> pl.fire(before, after));
+            }
         }
+
+        this.data = next;
+        commits.forEach(Runnable::run);
+        return callbacks;
     }
 
-    public synchronized void reload() {
-        loadInternal();
+    private static <R extends Record> void stage(ConfigBinding<R> binding, ConfigSnapshot next,
+                                                 List<Runnable> commits, List<Runnable> callbacks) {
+        R value = binding.prepare(next);
+        if (value == null) return;
+        commits.add(() -> binding.publish(next, value));
+        callbacks.add(() -> binding.fireReload(value));
     }
 
-    public synchronized void save() {
-        saveInternal();
+    private void writeAtomically(byte[] content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, content);
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
-    public synchronized Object get(String key) {
-        return data.get(key);
+    private void changed() {
+        if (flushDelayMs == 0L) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            IO.schedule(this::backgroundFlush, flushDelayMs, TimeUnit.MILLISECONDS);
+        }
     }
 
-    public synchronized <T> T getOrDefault(String key, T def) {
-        Object v = data.get(key);
-        if (v == null) return def;
+    private void backgroundFlush() {
+        flushScheduled.set(false);
         try {
-            @SuppressWarnings("unchecked")
-            T casted = (T) v;
-            return casted;
-        } catch (ClassCastException ex) {
-            return def;
+            flush();
+            failedFlushes = 0;
+        } catch (RuntimeException e) {
+            // The changes are still marked dirty; retry with exponential backoff until a save succeeds
+            failedFlushes++;
+            long delay = Math.min(MAX_RETRY_DELAY_MS, Math.max(flushDelayMs, 1000L) << Math.min(failedFlushes, 16));
+            LOGGER.error("Background save failed (attempt " + failedFlushes + "), retrying in " + delay + " ms", e);
+            if (flushScheduled.compareAndSet(false, true)) {
+                IO.schedule(this::backgroundFlush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes pending changes to disk, if any. The file is replaced atomically,
+     * so readers never observe a half-written config.
+     */
+    public void flush() {
+        synchronized (ioLock) {
+            Map<String, Object> snapshot;
+            synchronized (this) {
+                if (!dirty) return;
+                snapshot = data.root;
+                dirty = false;
+            }
+
+            long start = System.nanoTime();
+            try {
+                byte[] content = codec.write(snapshot).getBytes(StandardCharsets.UTF_8);
+                writeAtomically(content);
+                lastWritten = Files.getLastModifiedTime(file);
+                flushNanos.record(System.nanoTime() - start);
+
+                if (cache != null) {
+                    ConfigCache.Key key = ConfigCache.key(file, content);
+                    IO.execute(() -> cache.store(key, snapshot));
+                }
+            } catch (IOException e) {
+                flushFailures.increment();
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw new RuntimeException("Could not save configuration: " + file, e);
+            }
         }
     }
 
-    public synchronized String getString(String key, String def) {
-        Object o = data.get(key);
-        return o == null ? def : String.valueOf(o);
+    public ConfigFormat getFormat() {
+        return format;
     }
 
-    public synchronized String getString(String key) {
-        Object o = data.get(key);
-        return o == null ? "" : String.valueOf(o);
+    public Path getFile() {
+        return file;
     }
 
-    public synchronized int getInt(String key, int def) {
-        Object o = data.get(key);
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Reloads the file from disk. Changes that have not been flushed yet are discarded.
+     * If the new content does not fit a bound record, the reload is rejected and the old values stay live.
+     */
+    public void reload() {
+        ConfigSnapshot next = readSnapshot();
+        reloads.increment();
+        List<Runnable> callbacks;
+        synchronized (this) {
+            callbacks = install(next, ConfigSnapshot.diff(data, next));
+            dirty = false;
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    /**
+     * Starts reloading this config whenever the file changes on disk.
+     * All watched configs share one watcher thread; bursts of write events are debounced.
+     */
+    public void watch() {
+        watch(DEFAULT_WATCH_DEBOUNCE_MS);
+    }
 
-        if (o instanceof Number) return ((Number) o).intValue();
-        if (o instanceof String) {
-            try { return Integer.parseInt((String) o); }
-            catch (NumberFormatException ignored) {}
+    public void watch(long debounceMs) {
+        synchronized (ioLock) {
+            boolean registered = watchDebounceMs >= 0;
+            watchDebounceMs = Math.max(0L, debounceMs);
+            if (registered) return;
         }
-        return def;
+        ConfigWatcher.get().register(file, this);
     }
 
-    public synchronized int getInt(String key) {
-        Object o = data.get(key);
+    public void unwatch() {
+        synchronized (ioLock) {
+            if (watchDebounceMs < 0) return;
+            watchDebounceMs = -1L;
+            if (pendingReload != null) pendingReload.cancel(false);
+        }
+        ConfigWatcher.get().unregister(file, this);
+    }
+
+    /**
+     * Called from the watcher thread; (re)starts the debounce timer.
+     */
+    void fileChanged() {
+        synchronized (ioLock) {
+            if (watchDebounceMs < 0) return;
+            if (pendingReload != null) pendingReload.cancel(false);
+            pendingReload = IO.schedule(this::reloadFromDisk, watchDebounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
 
-        if (o instanceof Number) return ((Number) o).intValue();
-        if (o instanceof String) {
-            try { return Integer.parseInt((String) o); }
-            catch (NumberFormatException ignored) {}
+    private void reloadFromDisk() {
+        try {
+            if (!Files.exists(file)) return;
+            if (Files.getLastModifiedTime(file).equals(lastWritten)) return;
+            reload();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not reload " + file, e);
         }
-        return 0;
     }
 
-    public synchronized double getDouble(String key, double def) {
-        Object o = data.get(key);
+    /**
+     * Registers a listener for {@code path} (or {@code ""} for the whole config). It fires after a reload
+     * or change only if the value at that path, or anything below it, is different.
+     */
+    public void onChange(String path, ConfigChangeListener listener) {
+        listeners.add(new PathListener(path, listener));
+    }
+
+    public void removeChangeListener(ConfigChangeListener listener) {
+        listeners.removeIf(pl -> pl.listener == listener);
+    }
 
-        if (o instanceof Number) return ((Number) o).doubleValue();
-        if (o instanceof String) {
-            try { return Double.parseDouble((String) o); }
-            catch (NumberFormatException ignored) {}
+    public void save() {
+        synchronized (this) {
+            dirty = true;
         }
-        return def;
+        flush();
     }
 
-    public synchronized double getDouble(String key) {
-        Object o = data.get(key);
+    private Object read(String key) {
+        reads.increment();
+        return data.get(key);
+    }
+
+    private ConfigValue lookup(String key) {
+        reads.increment();
+        return data.lookup(key);
+    }
 
-        if (o instanceof Number) return ((Number) o).doubleValue();
-        if (o instanceof String) {
-            try { return Double.parseDouble((String) o); }
-            catch (NumberFormatException ignored) {}
+    public Object get(String key) {
+        return read(key);
+    }
+
+    public boolean contains(String key) {
+        return lookup(key) != null;
+    }
+
+    public <T> T getOrDefault(String key, T def) {
+        Object v = read(key);
+        if (v == null) return def;
+        try {
+            @SuppressWarnings("unchecked")
+            T casted = (T) v;
+            return casted;
+        } catch (ClassCastException ex) {
+            return def;
         }
-        return 0.0;
     }
 
-    public synchronized boolean getBoolean(String key, boolean def) {
-        Object o = data.get(key);
+    public String getString(String key, String def) {
+        ConfigValue v = lookup(key);
+        if (v == null || v.raw == null) return def;
+        return v.string != null ? v.string : String.valueOf(v.raw);
+    }
+
+    public String getString(String key) {
+        return getString(key, "");
+    }
 
-        if (o instanceof Boolean) return (Boolean) o;
-        if (o instanceof String) return Boolean.parseBoolean((String) o);
+    public int getInt(String key, int def) {
+        ConfigValue v = lookup(key);
+        return v != null && v.isInt ? v.intValue : def;
+    }
 
-        return def;
+    public int getInt(String key) {
+        return getInt(key, 0);
     }
 
-    public synchronized boolean getBoolean(String key) {
-        Object o = data.get(key);
+    public long getLong(String key, long def) {
+        ConfigValue v = lookup(key);
+        return v != null && v.isLong ? v.longValue : def;
+    }
 
-        if (o instanceof Boolean) return (Boolean) o;
-        if (o instanceof String) return Boolean.parseBoolean((String) o);
+    public long getLong(String key) {
+        return getLong(key, 0L);
+    }
 
-        return false;
+    public double getDouble(String key, double def) {
+        ConfigValue v = lookup(key);
+        return v != null && v.isDouble ? v.doubleValue : def;
+    }
+
+    public double getDouble(String key) {
+        return getDouble(key, 0.0);
+    }
+
+    public boolean getBoolean(String key, boolean def) {
+        ConfigValue v = lookup(key);
+        return v != null && v.isBoolean ? v.booleanValue : def;
+    }
+
+    public boolean getBoolean(String key) {
+        return getBoolean(key, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Object> getList(String key) {
+        Object o = read(key);
+        if (o instanceof List) return (List<Object>) o;
+        return Collections.emptyList();
     }
 
     @SuppressWarnings("unchecked")
-    public synchronized Map<String, Object> getConfigurationSection(String key) {
-        Object o = data.get(key);
+    public Map<String, Object> getConfigurationSection(String key) {
+        Object o = read(key);
         if (o instanceof Map) return (Map<String, Object>) o;
         return Collections.emptyMap();
     }
 
     @SuppressWarnings("unchecked")
-    public synchronized Map<String, Object> getConfigurationSectionOrNull(String key) {
-        Object o = data.get(key);
+    public Map<String, Object> getConfigurationSectionOrNull(String key) {
+        Object o = read(key);
         if (o instanceof Map) return (Map<String, Object>) o;
         return null;
     }
 
-    public synchronized void set(String key, Object value) {
-        data.put(key, value);
-        saveInternal();
+    public void set(String key, Object value) {
+        batch(editor -> editor.set(key, value));
+    }
+
+    public void remove(String key) {
+        batch(editor -> editor.remove(key));
+    }
+
+    public void setDefault(String key, Object value) {
+        batch(editor -> editor.setDefault(key, value));
     }
 
-    public synchronized void remove(String key) {
-        data.remove(key);
-        saveInternal();
+    public void applyDefaults(Map<String, Object> defaults) {
+        batch(editor -> defaults.forEach(editor::setDefault));
     }
 
-    public synchronized void setDefault(String key, Object value) {
-        if (!data.containsKey(key)) {
-            data.put(key, value);
-            saveInternal();
+    /**
+     * Applies several changes atomically and saves them as a single write.
+     * The editor is only valid inside the callback.
+     */
+    public void batch(Consumer<Editor> edits) {
+        List<Runnable> callbacks;
+        synchronized (this) {
+            ConfigSnapshot.Mutation mutation = data.edit();
+            edits.accept(mutation);
+            if (!mutation.changed()) return;
+            callbacks = install(mutation.build(), mutation.touched());
+            dirty = true;
         }
+        writes.increment();
+        callbacks.forEach(Runnable::run);
+        changed();
     }
 
-    public synchronized void applyDefaults(Map<String, Object> defaults) {
-        boolean changed = false;
-        for (var e : defaults.entrySet()) {
-            if (!data.containsKey(e.getKey())) {
-                data.put(e.getKey(), e.getValue());
-                changed = true;
-            }
+    /**
+     * Binds the whole config to a record. See {@link #bind(String, Class)}.
+     */
+    public <R extends Record> ConfigBinding<R> bind(Class<R> type) {
+        return bind("", type);
+    }
+
+    /**
+     * Binds the section at {@code path} to an immutable record. Record components are read from keys
+     * of the same name (or its kebab-case form); missing or mistyped values fail here, not at read time.
+     * Wrap a component in {@link Optional} to make it optional.
+     */
+    public <R extends Record> ConfigBinding<R> bind(String path, Class<R> type) {
+        ConfigBinding<R> binding = new ConfigBinding<>(this, path, type);
+        synchronized (this) {
+            ConfigSnapshot snapshot = data;
+            binding.publish(snapshot, binding.prepare(snapshot));
+            bindings.add(binding);
         }
-        if (changed) saveInternal();
+        return binding;
+    }
+
+    void unbind(ConfigBinding<?> binding) {
+        bindings.remove(binding);
+    }
+
+    public Map<String, Object> asMap() {
+        return data.root;
+    }
+
+    public interface Editor {
+        Editor set(String key, Object value);
+        Editor remove(String key);
+        Editor setDefault(String key, Object value);
     }
 
-    public synchronized Map<String, Object> asMap() {
-        return Collections.unmodifiableMap(data);
+    private record PathListener(String path, ConfigChangeListener listener) {
+
+        void fire(Object before, Object after) {
+            try {
+                listener.onChange(path, before, after);
+            } catch (RuntimeException e) {
+                LOGGER.error("Config change listener for '" + path + "' failed", e);
+            }
+        }
     }
 }
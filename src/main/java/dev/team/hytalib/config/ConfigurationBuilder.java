@@ -0,0 +1,47 @@
+package dev.team.hytalib.config;
+
+import java.nio.file.Path;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+public class ConfigurationBuilder {
+
+    private final Path file;
+    private ConfigFormat format;
+    private long flushDelayMs = 0L;
+    private boolean binaryCache = false;
+    private long watchDebounceMs = -1L;
+
+    private ConfigurationBuilder(Path file) {
+        this.file = file;
+    }
+
+    public static ConfigurationBuilder create(Path file) { return new ConfigurationBuilder(file); }
+
+    /**
+     * Defaults to the file extension: {@code .json} is JSON, anything else YAML.
+     */
+    public ConfigurationBuilder format(ConfigFormat format) { this.format = format; return this; }
+
+    public ConfigurationBuilder writeBehind(long flushDelayMs) { this.flushDelayMs = flushDelayMs; return this; }
+    public ConfigurationBuilder writeBehind() { return writeBehind(Configuration.DEFAULT_FLUSH_DELAY_MS); }
+
+    /**
+     * Keeps a binary copy of the parsed tree next to the file so unchanged configs load without re-parsing.
+     */
+    public ConfigurationBuilder binaryCache(boolean enabled) { this.binaryCache = enabled; return this; }
+
+    public ConfigurationBuilder watch(long debounceMs) { this.watchDebounceMs = debounceMs; return this; }
+    public ConfigurationBuilder watch() { return watch(Configuration.DEFAULT_WATCH_DEBOUNCE_MS); }
+
+    public Configuration build() {
+        if (file == null)
+            throw new IllegalStateException("Configuration requires a file.");
+
+        ConfigFormat resolved = format != null ? format : ConfigFormat.fromFileName(file.getFileName().toString());
+        Configuration config = new Configuration(file, resolved, flushDelayMs, binaryCache);
+        if (watchDebounceMs >= 0) config.watch(watchDebounceMs);
+        return config;
+    }
+}
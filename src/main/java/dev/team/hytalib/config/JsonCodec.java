@@ -0,0 +1,120 @@
+package dev.team.hytalib.config;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * JSON format read token by token with Gson's streaming {@link JsonReader},
+ * straight into the maps and lists the config tree uses (no intermediate JsonElement tree).
+ * Comments and other lenient syntax are accepted.
+ */
+final class JsonCodec implements ConfigCodec {
+
+    @Override
+    public Map<?, ?> read(String content) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(content))) {
+            reader.setLenient(true);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+            return readObject(reader);
+        }
+    }
+
+    private static Map<String, Object> readObject(JsonReader reader) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            map.put(name, readValue(reader));
+        }
+        reader.endObject();
+        return map;
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException {
+        return switch (reader.peek()) {
+            case BEGIN_OBJECT -> readObject(reader);
+            case BEGIN_ARRAY -> readArray(reader);
+            case STRING -> reader.nextString();
+            case NUMBER -> parseNumber(reader.nextString());
+            case BOOLEAN -> reader.nextBoolean();
+            case NULL -> {
+                reader.nextNull();
+                yield null;
+            }
+            default -> throw new IOException("Unexpected JSON token " + reader.peek() + " at " + reader.getPath());
+        };
+    }
+
+    private static List<Object> readArray(JsonReader reader) throws IOException {
+        List<Object> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) list.add(readValue(reader));
+        reader.endArray();
+        return list;
+    }
+
+    // Same number types SnakeYAML produces, so typed getters behave identically across formats.
+    private static Object parseNumber(String raw) {
+        boolean integral = true;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+                break;
+            }
+        }
+
+        if (integral) {
+            try {
+                long l = Long.parseLong(raw);
+                return l == (int) l ? (Object) (int) l : (Object) l;
+            } catch (NumberFormatException ignored) {
+                return new BigInteger(raw);
+            }
+        }
+        return Double.parseDouble(raw);
+    }
+
+    @Override
+    public String write(Map<String, Object> data) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent("  ");
+            writer.setSerializeNulls(true);
+            writeValue(writer, data);
+        }
+        return out.append('\n').toString();
+    }
+
+    private static void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof Map<?, ?> map) {
+            writer.beginObject();
+            for (var e : map.entrySet()) {
+                writer.name(String.valueOf(e.getKey()));
+                writeValue(writer, e.getValue());
+            }
+            writer.endObject();
+        } else if (value instanceof Collection<?> list) {
+            writer.beginArray();
+            for (Object o : list) writeValue(writer, o);
+            writer.endArray();
+        } else if (value instanceof Boolean b) {
+            writer.value(b);
+        } else if (value instanceof Number n) {
+            writer.value(n);
+        } else {
+            writer.value(String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package dev.team.hytalib.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Maps a config section onto a record through its canonical constructor.
+ * Component keys, converters and the constructor handle are resolved once per record type.
+ * Component {@code sqlEnabled} is read from {@code sqlEnabled} or {@code sql-enabled}.
+ */
+final class RecordBinder<R extends Record> {
+
+    private static final ClassValue<RecordBinder<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected RecordBinder<?> computeValue(Class<?> type) {
+            return new RecordBinder<>(type.asSubclass(Record.class));
+        }
+    };
+
+    private final Class<R> type;
+    private final Component[] components;
+    private final MethodHandle constructor;
+
+    private RecordBinder(Class<R> type) {
+        this.type = type;
+
+        RecordComponent[] recordComponents = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[recordComponents.length];
+        this.components = new Component[recordComponents.length];
+
+        for (int i = 0; i < recordComponents.length; i++) {
+            RecordComponent rc = recordComponents[i];
+            parameterTypes[i] = rc.getType();
+            components[i] = new Component(rc.getName(), toKebabCase(rc.getName()), rc.getGenericType());
+        }
+
+        try {
+            Constructor<R> ctor = type.getDeclaredConstructor(parameterTypes);
+            ctor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(ctor);
+            this.constructor = handle.asType(handle.type().generic()).asSpreader(Object[].class, parameterTypes.length);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Cannot bind config to record " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R extends Record> RecordBinder<R> of(Class<R> type) {
+        return (RecordBinder<R>) CACHE.get(type);
+    }
+
+    String typeName() {
+        return type.getSimpleName();
+    }
+
+    R bind(String path, Map<?, ?> section) {
+        Object[] args = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Component c = components[i];
+            String key = section.containsKey(c.name) || !section.containsKey(c.kebabName) ? c.name : c.kebabName;
+            args[i] = convert(join(path, key), section.get(key), c.type);
+        }
+
+        try {
+            return type.cast((Object) constructor.invokeExact(args));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to construct " + type.getSimpleName() + " from config section '" + path + "'", t);
+        }
+    }
+
+    private static Object convert(String path, Object value, Type target) {
+        if (target instanceof ParameterizedType pt && pt.getRawType() == Optional.class) {
+            return value == null ? Optional.empty() : Optional.of(convert(path, value, pt.getActualTypeArguments()[0]));
+        }
+        if (value == null) throw invalid(path, "missing value", target);
+
+        Class<?> raw = rawType(target);
+
+        if (raw == String.class) return String.valueOf(value);
+        if (raw == int.class || raw == Integer.class) return (int) toLong(path, value, target, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (raw == long.class || raw == Long.class) return toLong(path, value, target, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (raw == short.class || raw == Short.class) return (short) toLong(path, value, target, Short.MIN_VALUE, Short.MAX_VALUE);
+        if (raw == byte.class || raw == Byte.class) return (byte) toLong(path, value, target, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        if (raw == double.class || raw == Double.class) return toDouble(path, value, target);
+        if (raw == float.class || raw == Float.class) return (float) toDouble(path, value, target);
+        if (raw == boolean.class || raw == Boolean.class) return toBoolean(path, value, target);
+
+        if (raw.isEnum()) return toEnum(path, value, raw);
+
+        if (raw.isRecord()) {
+            if (!(value instanceof Map<?, ?> map)) throw invalid(path, value, target);
+            return of(raw.asSubclass(Record.class)).bind(path, map);
+        }
+
+        if (raw == List.class || raw == Collection.class) {
+            if (!(value instanceof List<?> list)) throw invalid(path, value, target);
+            Type element = typeArgument(target, 0);
+            List<Object> out = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) out.add(convert(path + "[" + i + "]", list.get(i), element));
+            return Collections.unmodifiableList(out);
+        }
+
+        if (raw == Map.class) {
+            if (!(value instanceof Map<?, ?> map)) throw invalid(path, value, target);
+            Type element = typeArgument(target, 1);
+            Map<String, Object> out = new LinkedHashMap<>();
+            map.forEach((k, v) -> out.put(String.valueOf(k), convert(join(path, String.valueOf(k)), v, element)));
+            return Collections.unmodifiableMap(out);
+        }
+
+        if (raw.isInstance(value)) return value;
+        throw invalid(path, value, target);
+    }
+
+    private static long toLong(String path, Object value, Type target, long min, long max) {
+        long result;
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            result = ((Number) value).longValue();
+        } else if (value instanceof String s) {
+            try { result = Long.parseLong(s.trim()); }
+            catch (NumberFormatException e) { throw invalid(path, value, target); }
+        } else {
+            throw invalid(path, value, target);
+        }
+        if (result < min || result > max) throw invalid(path, value, target);
+        return result;
+    }
+
+    private static double toDouble(String path, Object value, Type target) {
+        if (value instanceof Number n) return n.doubleValue();
+        if (value instanceof String s) {
+            try { return Double.parseDouble(s.trim()); }
+            catch (NumberFormatException e) { throw invalid(path, value, target); }
+        }
+        throw invalid(path, value, target);
+    }
+
+    private static boolean toBoolean(String path, Object value, Type target) {
+        if (value instanceof Boolean b) return b;
+        if (value instanceof String s) {
+            if (s.equalsIgnoreCase("true")) return true;
+            if (s.equalsIgnoreCase("false")) return false;
+        }
+        throw invalid(path, value, target);
+    }
+
+    private static Object toEnum(String path, Object value, Class<?> raw) {
+        String name = String.valueOf(value).trim().replace('-', '_');
+        for (Object constant : raw.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equalsIgnoreCase(name)) return constant;
+        }
+        throw invalid(path, value, raw);
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof ParameterizedType pt) return (Class<?>) pt.getRawType();
+        if (type instanceof WildcardType wt) return rawType(wt.getUpperBounds()[0]);
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType pt) return pt.getActualTypeArguments()[index];
+        return Object.class;
+    }
+
+    private static IllegalStateException invalid(String path, Object value, Type target) {
+        return new IllegalStateException("Invalid config value at '" + path + "': expected "
+                + rawType(target).getSimpleName() + " but found " + value);
+    }
+
+    private static String join(String path, String key) {
+        return path.isEmpty() ? key : path + "." + key;
+    }
+
+    private static String toKebabCase(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (Character.isUpperCase(ch)) {
+                sb.append('-').append(Character.toLowerCase(ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    private record Component(String name, String kebabName, Type type) {
+    }
+}
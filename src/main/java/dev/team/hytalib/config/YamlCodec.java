@@ -0,0 +1,45 @@
+package dev.team.hytalib.config;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.util.Map;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+final class YamlCodec implements ConfigCodec {
+
+    // Yaml instances are not thread-safe
+    private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(YamlCodec::createYaml);
+
+    private static Yaml createYaml() {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setMaxAliasesForCollections(50);
+
+        SafeConstructor constructor = new SafeConstructor(loaderOptions);
+
+        DumperOptions dumper = new DumperOptions();
+        dumper.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        dumper.setIndent(2);
+        dumper.setPrettyFlow(true);
+
+        Representer representer = new Representer(dumper);
+
+        return new Yaml(constructor, representer, dumper, loaderOptions);
+    }
+
+    @Override
+    public Map<?, ?> read(String content) {
+        Object loaded = yaml.get().load(content);
+        return loaded instanceof Map<?, ?> map ? map : null;
+    }
+
+    @Override
+    public String write(Map<String, Object> data) {
+        return yaml.get().dump(data);
+    }
+}
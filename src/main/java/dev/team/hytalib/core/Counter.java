@@ -0,0 +1,29 @@
+package dev.team.hytalib.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Monotonic counter from a {@link Metrics} namespace. Backed by a {@link LongAdder}, so threads
+ * incrementing at the same time update separate cells instead of contending on one value.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {}
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        if (amount < 0) throw new IllegalArgumentException("Counters only go up, got " + amount);
+        value.add(amount);
+    }
+
+    public long sum() {
+        return value.sum();
+    }
+}
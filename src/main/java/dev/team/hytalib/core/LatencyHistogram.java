@@ -0,0 +1,98 @@
+package dev.team.hytalib.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Lock-free log-linear histogram for latencies or sizes. Every power of two is split into
+ * four buckets, so percentiles are accurate to within 25% at any magnitude, and recording
+ * is a handful of atomic adds with no allocation.
+ * <p>
+ * The unit is whatever the caller records (usually nanoseconds).
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) current = max.get();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of all recorded values
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.99
+     * @return an upper bound of the value at that quantile, 0 if nothing was recorded
+     */
+    public long percentile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) total += snapshot[i] = counts.get(i);
+        return percentile(snapshot, total, quantile);
+    }
+
+    public Snapshot snapshot() {
+        long total = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) total += snapshot[i] = counts.get(i);
+
+        return new Snapshot(total, total == 0 ? 0 : sum.sum() / total,
+                percentile(snapshot, total, 0.5), percentile(snapshot, total, 0.9),
+                percentile(snapshot, total, 0.99), max.get());
+    }
+
+    private long percentile(long[] snapshot, long total, double quantile) {
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+
+    public record Snapshot(long count, long mean, long p50, long p90, long p99, long max) {
+    }
+}
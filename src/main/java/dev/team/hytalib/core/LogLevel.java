@@ -0,0 +1,14 @@
+package dev.team.hytalib.core;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+public enum LogLevel {
+
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    /** Threshold only: disables logging. */
+    OFF
+}
@@ -0,0 +1,94 @@
+package dev.team.hytalib.core;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Destination of formatted log lines. Only the {@link LogWriter} thread calls a sink, so
+ * implementations need no synchronization; they should buffer and write out on {@link #flush()},
+ * which is called once per batch.
+ */
+public interface LogSink extends Closeable {
+
+    void write(long timeMillis, CharSequence line) throws IOException;
+
+    void flush() throws IOException;
+
+    /**
+     * Standard output, buffered; lines are written as they were before (no timestamp).
+     * Batches go through the current {@link System#out}, so a server that captures or redirects it still sees them.
+     */
+    static LogSink console() {
+        OutputStream stdout = new OutputStream() {
+            @Override
+            public void write(int b) {
+                System.out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                System.out.write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                System.out.flush();
+            }
+        };
+        return new StreamSink(stdout, System.out.charset(), false, false);
+    }
+
+    /**
+     * Appends to {@code file}, creating it and its directories if needed; lines are timestamped.
+     */
+    static LogSink file(Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        return new StreamSink(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                StandardCharsets.UTF_8, true, true);
+    }
+
+    final class StreamSink implements LogSink {
+
+        private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+                .withZone(ZoneId.systemDefault());
+
+        private final Writer out;
+        private final boolean timestamps;
+        private final boolean closeStream;
+
+        private StreamSink(OutputStream stream, Charset charset, boolean timestamps, boolean closeStream) {
+            this.out = new BufferedWriter(new OutputStreamWriter(stream, charset), 64 * 1024);
+            this.timestamps = timestamps;
+            this.closeStream = closeStream;
+        }
+
+        @Override
+        public void write(long timeMillis, CharSequence line) throws IOException {
+            if (timestamps) {
+                TIME.formatTo(Instant.ofEpochMilli(timeMillis), out);
+                out.write(' ');
+            }
+            out.append(line).write(System.lineSeparator());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closeStream) out.close();
+            else out.flush();
+        }
+    }
+}
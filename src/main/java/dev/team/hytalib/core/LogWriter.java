@@ -0,0 +1,276 @@
+package dev.team.hytalib.core;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Asynchronous backend of {@link PluginLogger}. Events go into a preallocated ring buffer that any
+ * number of threads write to without locks; one background thread formats them and writes them to
+ * the sinks in batches, flushing once per batch. Message patterns ({@code "{}"}) and stack traces are
+ * formatted on that thread, not the caller's.
+ * <p>
+ * When the buffer is full the {@link Overflow} policy decides: drop the event (counted), or make the
+ * caller wait for space.
+ */
+public final class LogWriter implements AutoCloseable {
+
+    public enum Overflow { DROP, BLOCK }
+
+    private static final int MAX_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Slot[] slots;
+    private final int mask;
+    private final Overflow overflow;
+    private final List<LogSink> sinks;
+
+    /** Next sequence to claim; producers CAS it. */
+    private final AtomicLong claimed = new AtomicLong();
+    /** Next sequence the writer reads; everything before it is free. */
+    private volatile long consumed;
+
+    private final Thread thread;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sinkErrors = new LongAdder();
+
+    private LogWriter(Builder builder) {
+        int capacity = Integer.highestOneBit(Math.max(2, builder.capacity - 1)) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) slots[i] = new Slot(i - capacity);
+        this.mask = capacity - 1;
+        this.overflow = builder.overflow;
+        this.sinks = List.copyOf(builder.sinks);
+
+        this.thread = new Thread(this::run, builder.threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Queues one event. {@code args} is the argument array of {@code pattern}; it is not copied,
+     * so callers must not reuse it.
+     *
+     * @return {@code false} if the event was dropped
+     */
+    boolean publish(String prefix, LogLevel level, String message, Object[] args, Throwable thrown) {
+        long sequence = closed ? -1 : claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return false;
+        }
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.time = System.currentTimeMillis();
+        slot.prefix = prefix;
+        slot.level = level;
+        slot.message = message;
+        slot.args = args;
+        slot.thrown = thrown;
+        slot.published = sequence;
+
+        if (idle) LockSupport.unpark(thread);
+        return true;
+    }
+
+    /**
+     * @return the claimed sequence, or -1 if the event must be dropped
+     */
+    private long claim() {
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                // The writer can't wait for itself, and nothing drains after close or once the writer died
+                if (overflow == Overflow.DROP || closed || Thread.currentThread() == thread || !thread.isAlive()) return -1;
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(50_000);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) return sequence;
+        }
+    }
+
+    private void run() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            int batch = drain(line);
+            if (batch > 0) {
+                flushSinks();
+                continue;
+            }
+            if (closed && consumed == claimed.get()) break;
+
+            idle = true;
+            // Re-check after announcing idleness, so a publish in between is not missed
+            if (slots[(int) consumed & mask].published != consumed) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            idle = false;
+        }
+        flushSinks();
+        for (LogSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                sinkErrors.increment();
+            }
+        }
+    }
+
+    private int drain(StringBuilder line) {
+        int count = 0;
+        long sequence = consumed;
+        while (count < MAX_BATCH) {
+            Slot slot = slots[(int) sequence & mask];
+            if (slot.published != sequence) break;
+
+            line.setLength(0);
+            try {
+                format(slot, line);
+            } catch (RuntimeException e) {
+                // A throwing toString() or a null pattern must not stop the writer; keep the raw pattern
+                sinkErrors.increment();
+                line.setLength(0);
+                line.append(slot.prefix).append(' ').append(slot.level.name()).append(": ").append(slot.message);
+            }
+            long time = slot.time;
+            slot.clear();
+            consumed = ++sequence;
+
+            for (LogSink sink : sinks) {
+                try {
+                    sink.write(time, line);
+                } catch (IOException | RuntimeException e) {
+                    sinkErrors.increment();
+                }
+            }
+            count++;
+        }
+        written.add(count);
+        return count;
+    }
+
+    private void flushSinks() {
+        for (LogSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                sinkErrors.increment();
+            }
+        }
+    }
+
+    private static void format(Slot slot, StringBuilder out) {
+        out.append(slot.prefix).append(' ').append(slot.level.name()).append(": ");
+        String message = slot.message;
+        Object[] args = slot.args;
+
+        if (args == null || args.length == 0) {
+            out.append(message);
+        } else {
+            int from = 0, arg = 0;
+            for (int at; arg < args.length && (at = message.indexOf("{}", from)) >= 0; from = at + 2) {
+                out.append(message, from, at).append(args[arg++]);
+            }
+            out.append(message, from, message.length());
+        }
+
+        if (slot.thrown != null) {
+            StringWriter trace = new StringWriter();
+            slot.thrown.printStackTrace(new PrintWriter(trace));
+            out.append(System.lineSeparator()).append(trace.getBuffer(), 0, trace.getBuffer().length() - System.lineSeparator().length());
+        }
+    }
+
+    /**
+     * Stops accepting events, writes out everything queued and closes the sinks.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(slots.length, (int) (claimed.get() - consumed), written.sum(), dropped.sum(), sinkErrors.sum());
+    }
+
+    /**
+     * @param capacity   ring buffer size
+     * @param queued     events waiting for the writer
+     * @param written    events written to the sinks
+     * @param dropped    events lost to a full buffer
+     * @param sinkErrors failed sink writes, and events that could not be formatted
+     */
+    public record Stats(int capacity, int queued, long written, long dropped, long sinkErrors) {
+    }
+
+    /**
+     * One preallocated event. Fields are written by the producer that claimed the slot and become
+     * visible to the writer through the volatile {@code published} sequence.
+     */
+    private static final class Slot {
+
+        private volatile long published;
+        private long time;
+        private String prefix;
+        private LogLevel level;
+        private String message;
+        private Object[] args;
+        private Throwable thrown;
+
+        private Slot(long initial) {
+            this.published = initial;
+        }
+
+        private void clear() {
+            prefix = null;
+            message = null;
+            args = null;
+            thrown = null;
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<LogSink> sinks = new ArrayList<>();
+        private int capacity = 8192;
+        private Overflow overflow = Overflow.DROP;
+        private String threadName = "Hytalib-log-writer";
+
+        private Builder() {}
+
+        public Builder sink(LogSink sink) { sinks.add(sink); return this; }
+        /** Events the buffer holds; rounded up to a power of two. */
+        public Builder capacity(int events) { this.capacity = events; return this; }
+        public Builder overflow(Overflow overflow) { this.overflow = overflow; return this; }
+        public Builder threadName(String name) { this.threadName = name; return this; }
+
+        public LogWriter build() {
+            if (sinks.isEmpty())
+                throw new IllegalStateException("LogWriter requires at least one sink.");
+            if (capacity <= 0)
+                throw new IllegalStateException("LogWriter capacity must be positive.");
+            return new LogWriter(this);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dev.team.hytalib.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * The metrics of one plugin (or of Hytalib itself), obtained from {@link MetricsRegistry}.
+ * Metric names are exported prefixed with the namespace, so two plugins can both have a
+ * {@code joins_total} counter. Labels are given as key/value pairs:
+ * <pre>{@code
+ * Counter purchases = getMetrics().counter("purchases_total", "shop", "weapons");
+ * LatencyHistogram saveNanos = getMetrics().histogram("save_nanos");
+ * getMetrics().gauge("online_players", () -> server.getOnlinePlayers().size());
+ * }</pre>
+ * Looking a metric up allocates, so keep the returned counter or histogram in a field;
+ * recording on it does not.
+ */
+public final class Metrics {
+
+    private final String namespace;
+    private final Map<Id, Object> metrics = new ConcurrentHashMap<>();
+
+    Metrics(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public String namespace() {
+        return namespace;
+    }
+
+    /**
+     * @return the counter with this name and labels, created on first use
+     */
+    public Counter counter(String name, String... labels) {
+        return lookup(name, labels, Counter.class);
+    }
+
+    /**
+     * @return a histogram of values in any unit; the name should say which, e.g. {@code _nanos}
+     */
+    public LatencyHistogram histogram(String name, String... labels) {
+        return lookup(name, labels, LatencyHistogram.class);
+    }
+
+    /**
+     * Registers (or replaces) a gauge; {@code value} is only called when the metrics are exported.
+     */
+    public void gauge(String name, DoubleSupplier value, String... labels) {
+        replace(Id.of(name, labels), new Gauge(value));
+    }
+
+    /**
+     * Registers (or replaces) a counter whose total is kept elsewhere, e.g. in a component's own stats.
+     * {@code total} is only called when the metrics are exported and must never decrease.
+     */
+    public void counter(String name, LongSupplier total, String... labels) {
+        replace(Id.of(name, labels), new CounterFunction(total));
+    }
+
+    private void replace(Id id, Object metric) {
+        metrics.merge(id, metric, (previous, next) -> {
+            if (previous.getClass() != next.getClass())
+                throw new IllegalStateException(describe(id) + " is already registered as another type.");
+            return next;
+        });
+    }
+
+    /**
+     * Removes every metric carrying all of the given label pairs, e.g. those of a closed pool.
+     * Without labels, removes everything in this namespace.
+     */
+    public void unregister(String... labels) {
+        List<String> pairs = Id.of("", labels).labels();
+        metrics.keySet().removeIf(id -> id.matches(pairs));
+    }
+
+    private <T> T lookup(String name, String[] labels, Class<T> type) {
+        Id id = Id.of(name, labels);
+        Object metric = metrics.computeIfAbsent(id, ignored -> type == Counter.class ? new Counter() : new LatencyHistogram());
+        if (!type.isInstance(metric))
+            throw new IllegalStateException(describe(id) + " is already registered as another type.");
+        return type.cast(metric);
+    }
+
+    private String describe(Id id) {
+        return "Metric " + namespace + "_" + id.name() + id.labels();
+    }
+
+    Map<Id, Object> entries() {
+        return metrics;
+    }
+
+    record Gauge(DoubleSupplier value) {
+    }
+
+    record CounterFunction(LongSupplier total) {
+    }
+
+    /**
+     * @param labels alternating label names and values
+     */
+    record Id(String name, List<String> labels) {
+
+        static Id of(String name, String[] labels) {
+            if (labels.length % 2 != 0)
+                throw new IllegalArgumentException("Labels must be key/value pairs: " + Arrays.toString(labels));
+            for (String label : labels) {
+                if (label == null) throw new IllegalArgumentException("Label keys and values must not be null.");
+            }
+            return new Id(name, List.of(labels));
+        }
+
+        boolean matches(List<String> pairs) {
+            for (int i = 0; i < pairs.size(); i += 2) {
+                boolean found = false;
+                for (int j = 0; j < labels.size() && !found; j += 2) {
+                    found = labels.get(j).equals(pairs.get(i)) && labels.get(j + 1).equals(pairs.get(i + 1));
+                }
+                if (!found) return false;
+            }
+            return true;
+        }
+    }
+}
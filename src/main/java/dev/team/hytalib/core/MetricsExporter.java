@@ -0,0 +1,81 @@
+package dev.team.hytalib.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Periodically writes a {@link MetricsRegistry} to a file in the Prometheus text format, e.g. for the
+ * node_exporter textfile collector or a local scraper. Created with {@link MetricsRegistry#exportTo}.
+ */
+public final class MetricsExporter implements AutoCloseable {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final ScheduledExecutorService timer;
+    private boolean failing;
+
+    MetricsExporter(MetricsRegistry registry, Path file, Duration period) {
+        if (period.isZero() || period.isNegative())
+            throw new IllegalArgumentException("Export period must be positive, got " + period);
+
+        this.registry = registry;
+        this.file = file;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Hytalib-MetricsExport");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::exportQuietly, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the file now.
+     */
+    public synchronized void export() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, registry.scrape(), StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void exportQuietly() {
+        try {
+            export();
+            failing = false;
+        } catch (IOException | RuntimeException e) {
+            // Once per outage, not every period
+            if (!failing) LOGGER.error("Could not export metrics to " + file, e);
+            failing = true;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Stops exporting; the file keeps its last contents.
+     */
+    @Override
+    public void close() {
+        timer.shutdown();
+    }
+}
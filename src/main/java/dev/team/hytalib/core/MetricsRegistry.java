@@ -0,0 +1,177 @@
+package dev.team.hytalib.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Metrics shared by all plugins. Each plugin gets its own namespace through {@link PluginBase#getMetrics()};
+ * Hytalib's own instrumentation (configs, messages, database pools) lives in {@link #library()}.
+ * Everything can be written in the Prometheus text format, either on demand with {@link #scrape()}
+ * or periodically to a file with {@link #exportTo(Path, Duration)}.
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+
+    /** Namespace of the metrics recorded by Hytalib itself. */
+    public static final String LIBRARY = "hytalib";
+
+    private final Map<String, Metrics> namespaces = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {}
+
+    public static MetricsRegistry get() {
+        return SHARED;
+    }
+
+    /**
+     * The metrics of one plugin; names are exported prefixed with the (sanitised, lower-case) plugin name.
+     */
+    public Metrics forPlugin(String pluginName) {
+        return namespaces.computeIfAbsent(sanitize(pluginName).toLowerCase(Locale.ROOT), Metrics::new);
+    }
+
+    public Metrics library() {
+        return forPlugin(LIBRARY);
+    }
+
+    /**
+     * Writes the current value of every metric to {@code file} every {@code period}, replacing the file
+     * atomically so a scraper never reads half of it.
+     */
+    public MetricsExporter exportTo(Path file, Duration period) {
+        return new MetricsExporter(this, file, period);
+    }
+
+    /**
+     * @return all metrics in the Prometheus text exposition format
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Counters are exported as counters, gauges as gauges and histograms as summaries
+     * (p50, p90 and p99 plus {@code _sum} and {@code _count}), in the unit they were recorded in.
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Metrics metrics : new TreeMap<>(namespaces).values()) {
+            // Group by name: the TYPE line must come once, before all series of the metric
+            Map<String, List<Map.Entry<Metrics.Id, Object>>> byName = new TreeMap<>();
+            for (Map.Entry<Metrics.Id, Object> entry : metrics.entries().entrySet()) {
+                byName.computeIfAbsent(entry.getKey().name(), n -> new ArrayList<>()).add(entry);
+            }
+
+            for (Map.Entry<String, List<Map.Entry<Metrics.Id, Object>>> group : byName.entrySet()) {
+                String name = metrics.namespace() + "_" + sanitize(group.getKey());
+                List<Map.Entry<Metrics.Id, Object>> series = group.getValue();
+                series.sort(Comparator.comparing(e -> e.getKey().labels().toString()));
+
+                // Samples first: a metric whose suppliers all failed gets no TYPE line either
+                StringBuilder samples = new StringBuilder();
+                for (Map.Entry<Metrics.Id, Object> entry : series) {
+                    List<String> labels = entry.getKey().labels();
+                    switch (entry.getValue()) {
+                        case Counter counter -> sample(samples, name, labels, null, counter.sum());
+                        case Metrics.CounterFunction counter -> {
+                            long total;
+                            try {
+                                total = counter.total().getAsLong();
+                            } catch (RuntimeException e) {
+                                continue;
+                            }
+                            sample(samples, name, labels, null, total);
+                        }
+                        case Metrics.Gauge gauge -> {
+                            double value;
+                            try {
+                                value = gauge.value().getAsDouble();
+                            } catch (RuntimeException e) {
+                                continue;
+                            }
+                            sample(samples, name, labels, null, value);
+                        }
+                        case LatencyHistogram histogram -> {
+                            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                            sample(samples, name, labels, "0.5", snapshot.p50());
+                            sample(samples, name, labels, "0.9", snapshot.p90());
+                            sample(samples, name, labels, "0.99", snapshot.p99());
+                            sample(samples, name + "_sum", labels, null, histogram.sum());
+                            sample(samples, name + "_count", labels, null, snapshot.count());
+                        }
+                        default -> {
+                        }
+                    }
+                }
+                if (samples.isEmpty()) continue;
+                out.append("# TYPE ").append(name).append(' ').append(type(series.get(0).getValue())).append('\n');
+                out.append(samples);
+            }
+        }
+    }
+
+    private static String type(Object metric) {
+        return switch (metric) {
+            case Counter ignored -> "counter";
+            case Metrics.CounterFunction ignored -> "counter";
+            case LatencyHistogram ignored -> "summary";
+            default -> "gauge";
+        };
+    }
+
+    private static void sample(Appendable out, String name, List<String> labels, String quantile, double value)
+            throws IOException {
+        out.append(name);
+        if (!labels.isEmpty() || quantile != null) {
+            out.append('{');
+            for (int i = 0; i < labels.size(); i += 2) {
+                if (i > 0) out.append(',');
+                out.append(sanitize(labels.get(i))).append("=\"").append(escape(labels.get(i + 1))).append('"');
+            }
+            if (quantile != null) {
+                if (!labels.isEmpty()) out.append(',');
+                out.append("quantile=\"").append(quantile).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (Double.isNaN(value)) out.append("NaN");
+        else if (Double.isInfinite(value)) out.append(value > 0 ? "+Inf" : "-Inf");
+        else if (value == Math.rint(value) && Math.abs(value) < 1e15) out.append(Long.toString((long) value));
+        else out.append(Double.toString(value));
+        out.append('\n');
+    }
+
+    /**
+     * Prometheus names may only contain letters, digits, underscores and colons, and not start with a digit.
+     */
+    static String sanitize(String name) {
+        StringBuilder out = new StringBuilder(name.length() + 1);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (c >= '0' && c <= '9' && i > 0);
+            if (c >= '0' && c <= '9' && i == 0) out.append('_').append(c);
+            else out.append(valid ? c : '_');
+        }
+        return out.isEmpty() ? "_" : out.toString();
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -1,5 +1,15 @@
 package dev.team.hytalib.core;
 
+import dev.team.hytalib.config.Configuration;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
 /**
  * HytaLab Studio code @ 2025
  * <p>
@@ -7,9 +17,17 @@ package dev.team.hytalib.core;
  */
 public abstract class PluginBase {
 
+    private enum State { DISABLED, STARTING, ENABLED, STOPPING }
+
     private PluginLogger logger;
-    private boolean enabled = false;
+    private volatile State state = State.DISABLED;
+    // Guarded by this
+    private boolean disableRequested;
+    private List<CompletableFuture<?>> starting = List.of();
     private String pluginName;
+    private final List<Configuration> configurations = new CopyOnWriteArrayList<>();
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private final Map<String, Supplier<? extends CompletionStage<?>>> startupTasks = new LinkedHashMap<>();
 
     public final void onLoad(String pluginName) {
         this.pluginName = pluginName;
@@ -17,51 +35,209 @@ public abstract class PluginBase {
         getLogger().info("Loaded plugin: " + pluginName);
     }
 
+    /**
+     * Enables the plugin and waits for its startup tasks. With several plugins, prefer {@link PluginLifecycle}.
+     */
     public final void enable() {
-        if (enabled) {
-            getLogger().warn("Plugin is already enabled!");
-            return;
+        startup().exceptionally(error -> null).join();
+    }
+
+    /**
+     * Runs {@link #onEnable()} on the calling thread, then starts the startup tasks it registered.
+     * The plugin counts as enabled once all of them have completed. If onEnable or a task fails, or
+     * {@link #disable()} is called meanwhile, the plugin is disabled again ({@link #onDisable()} included).
+     */
+    final CompletableFuture<PluginTiming> startup() {
+        synchronized (this) {
+            if (state != State.DISABLED) {
+                String current = state.name().toLowerCase(Locale.ROOT);
+                getLogger().warn("Plugin is already " + current + "!");
+                return CompletableFuture.failedFuture(new IllegalStateException(pluginName + " is already " + current));
+            }
+            state = State.STARTING;
+            disableRequested = false;
         }
 
         getLogger().info("Enabling plugin...");
+        long start = System.nanoTime();
 
         try {
             onEnable();
-            enabled = true;
-            getLogger().info("Plugin enabled successfully.");
         } catch (Exception e) {
-            getLogger().error("Error while enabling plugin: " + e.getMessage());
-            enabled = false;
-            e.printStackTrace();
+            getLogger().error("Error while enabling plugin", e);
+            // Release whatever onEnable set up before it failed
+            shutdown();
+            return CompletableFuture.failedFuture(e);
+        }
+        long enableNanos = System.nanoTime() - start;
+
+        Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+        List<CompletableFuture<?>> running = new ArrayList<>();
+        startupTasks.forEach((name, task) -> {
+            long taskStart = System.nanoTime();
+            CompletableFuture<?> future;
+            try {
+                future = task.get().toCompletableFuture();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            running.add(future.whenComplete((value, error) -> phases.put(name, System.nanoTime() - taskStart)));
+        });
+        startupTasks.clear();
+
+        boolean cancel;
+        synchronized (this) {
+            starting = running;
+            cancel = disableRequested;
         }
+        if (cancel) running.forEach(future -> future.cancel(true));
+
+        return CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).handle((ignored, error) -> {
+            long totalNanos = System.nanoTime() - start;
+            boolean disabledMeanwhile;
+            synchronized (this) {
+                starting = List.of();
+                disabledMeanwhile = disableRequested;
+                if (error == null && !disabledMeanwhile) state = State.ENABLED;
+            }
+
+            if (disabledMeanwhile) {
+                shutdown();
+                throw new CancellationException(pluginName + " was disabled during startup");
+            }
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                getLogger().error("Startup task failed: " + cause.getMessage(), cause);
+                shutdown();
+                throw new IllegalStateException(pluginName + " failed to start", cause);
+            }
+            getLogger().info("Plugin enabled in {} ms.", totalNanos / 1_000_000);
+            return new PluginTiming(pluginName, start, enableNanos, Map.copyOf(phases), totalNanos);
+        });
     }
 
+    /**
+     * Disables the plugin. While it is still starting, its startup tasks are cancelled and the plugin
+     * is disabled as soon as they have stopped.
+     */
     public final void disable() {
-        if (!enabled) {
-            getLogger().warn("Plugin is already disabled!");
+        List<CompletableFuture<?>> cancel;
+        synchronized (this) {
+            switch (state) {
+                case DISABLED, STOPPING -> {
+                    getLogger().warn("Plugin is already disabled!");
+                    return;
+                }
+                case STARTING -> {
+                    if (disableRequested) return;
+                    disableRequested = true;
+                    cancel = starting;
+                }
+                default -> cancel = null;
+            }
+        }
+
+        if (cancel != null) {
+            getLogger().info("Plugin is still starting; disabling it once startup stops.");
+            cancel.forEach(future -> future.cancel(true));
             return;
         }
+        shutdown();
+    }
 
+    private void shutdown() {
         getLogger().info("Disabling plugin...");
-        enabled = false;
+        state = State.STOPPING;
 
         try {
             onDisable();
             getLogger().info("Plugin disabled successfully.");
         } catch (Exception e) {
-            getLogger().error("Error while disabling plugin: " + e.getMessage());
-            e.printStackTrace();
+            getLogger().error("Error while disabling plugin", e);
+        }
+
+        // Whatever onDisable left running would outlive the plugin
+        getScheduler().cancelAll();
+        closeConfigs();
+        state = State.DISABLED;
+    }
+
+    /**
+     * Declares that this plugin must be enabled after {@code pluginNames}; call from {@link #onLoad()}.
+     */
+    protected final void dependsOn(String... pluginNames) {
+        dependencies.addAll(List.of(pluginNames));
+    }
+
+    public Set<String> getDependencies() {
+        return Collections.unmodifiableSet(dependencies);
+    }
+
+    /**
+     * Registers async startup work (warming pools, preloading caches) from {@link #onEnable()}.
+     * Tasks start when onEnable returns and run concurrently; plugins that depend on this one wait for them.
+     *
+     * @param name shown in the startup report
+     */
+    protected final void addStartupTask(String name, Supplier<? extends CompletionStage<?>> task) {
+        startupTasks.put(name, task);
+    }
+
+    /**
+     * Creates a write-behind configuration owned by this plugin.
+     * Pending changes are flushed automatically when the plugin is disabled.
+     */
+    public Configuration createConfig(Path file) {
+        return registerConfig(new Configuration(file, Configuration.DEFAULT_FLUSH_DELAY_MS));
+    }
+
+    public Configuration registerConfig(Configuration config) {
+        configurations.add(config);
+        return config;
+    }
+
+    private void closeConfigs() {
+        for (Configuration config : configurations) {
+            try {
+                config.unwatch();
+                config.flush();
+            } catch (Exception e) {
+                getLogger().error("Error while saving configuration", e);
+            }
         }
+        // createConfig registers again on the next enable
+        configurations.clear();
     }
 
     public boolean isEnabled() {
-        return enabled;
+        return state == State.ENABLED;
+    }
+
+    /**
+     * @return {@code true} between the start of {@link #onEnable()} and the end of its startup tasks
+     */
+    public boolean isStarting() {
+        return state == State.STARTING;
     }
 
     public PluginLogger getLogger() {
         return logger;
     }
 
+    /**
+     * This plugin's tasks on the shared {@link TaskScheduler}; they are cancelled on {@link #disable()}.
+     */
+    public PluginScheduler getScheduler() {
+        return TaskScheduler.get().forPlugin(pluginName);
+    }
+
+    /**
+     * This plugin's counters, gauges and histograms, exported under its name (see {@link MetricsRegistry}).
+     */
+    public Metrics getMetrics() {
+        return MetricsRegistry.get().forPlugin(pluginName);
+    }
+
     public abstract void onLoad();
     protected abstract void onEnable();
     protected abstract void onDisable();
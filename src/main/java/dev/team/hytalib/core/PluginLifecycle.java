@@ -0,0 +1,249 @@
+package dev.team.hytalib.core;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Enables a set of plugins in dependency order, running independent ones in parallel on a bounded pool.
+ * A plugin starts once every plugin it {@linkplain PluginBase#dependsOn depends on} has finished
+ * starting, async startup tasks included. If a plugin fails, the plugins that depend on it are skipped.
+ * <pre>{@code
+ * PluginLifecycle lifecycle = PluginLifecycle.builder().parallelism(4).build();
+ * lifecycle.register(economy, shops, minigames);
+ * lifecycle.enableAll().thenAccept(report -> LOGGER.info(report.format()));
+ * }</pre>
+ */
+public final class PluginLifecycle {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private final int parallelism;
+    private final Map<String, PluginBase> plugins = new LinkedHashMap<>();
+    // Of the last enableAll, guarded by this
+    private List<PluginBase> order = List.of();
+    private ExecutorService executor;
+    /** Set by disableAll: plugins whose dependencies finish afterwards are skipped instead of started. */
+    private volatile boolean stopping;
+
+    private PluginLifecycle(Builder builder) {
+        this.parallelism = builder.parallelism;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Adds loaded plugins ({@code onLoad} has run, so they have a name and their dependencies).
+     */
+    public synchronized PluginLifecycle register(PluginBase... toAdd) {
+        for (PluginBase plugin : toAdd) {
+            String name = plugin.getPluginName();
+            if (name == null)
+                throw new IllegalStateException("Plugin " + plugin.getClass().getName() + " has not been loaded.");
+            if (plugins.putIfAbsent(name, plugin) != null)
+                throw new IllegalStateException("Duplicate plugin name: " + name);
+        }
+        return this;
+    }
+
+    /**
+     * Enables every registered plugin. The future completes when all have started or failed;
+     * it fails only if the dependency graph is invalid (missing plugin or cycle).
+     */
+    public synchronized CompletableFuture<StartupReport> enableAll() {
+        List<PluginBase> order;
+        try {
+            order = topologicalOrder();
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "Hytalib-startup-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.order = order;
+        stopping = false;
+
+        long start = System.nanoTime();
+        Map<String, CompletableFuture<PluginTiming>> started = new HashMap<>();
+        Map<String, PluginTiming> timings = new ConcurrentHashMap<>();
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+        for (PluginBase plugin : order) {
+            CompletableFuture<?>[] dependencies = plugin.getDependencies().stream()
+                    .map(started::get).toArray(CompletableFuture[]::new);
+
+            CompletableFuture<PluginTiming> future = CompletableFuture.allOf(dependencies)
+                    .exceptionally(error -> {
+                        throw new IllegalStateException("Skipped, a dependency failed: " + unwrap(error).getMessage());
+                    })
+                    .thenComposeAsync(ignored -> stopping
+                            ? CompletableFuture.<PluginTiming>failedFuture(new CancellationException("Skipped, plugins are being disabled"))
+                            : plugin.startup(), executor)
+                    .whenComplete((timing, error) -> {
+                        if (error == null) {
+                            timings.put(plugin.getPluginName(), timing);
+                        } else {
+                            failures.put(plugin.getPluginName(), unwrap(error));
+                        }
+                    });
+            started.put(plugin.getPluginName(), future);
+        }
+
+        return CompletableFuture.allOf(started.values().stream()
+                        .map(f -> f.exceptionally(error -> null))
+                        .toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    executor.shutdown();
+                    StartupReport report = StartupReport.of(System.nanoTime() - start, order, timings, failures);
+                    failures.forEach((name, error) -> LOGGER.error("{} did not start: {}", name, error.getMessage()));
+                    return report;
+                });
+    }
+
+    /**
+     * Disables the plugins of the last {@link #enableAll()}, dependents before their dependencies.
+     * Plugins that have not started yet are skipped; those still starting are disabled once their startup
+     * tasks stop. Waits up to {@value #SHUTDOWN_WAIT_SECONDS} s for {@code onEnable} calls in progress.
+     */
+    public synchronized void disableAll() {
+        stopping = true;
+        if (executor != null) {
+            // Queued startups see the flag and fail; later ones are rejected
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS))
+                    LOGGER.warn("Plugins still enabling after {} s; disabling the others anyway", SHUTDOWN_WAIT_SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+
+        List<PluginBase> reverse = new ArrayList<>(order);
+        Collections.reverse(reverse);
+        for (PluginBase plugin : reverse) {
+            if (plugin.isEnabled() || plugin.isStarting()) plugin.disable();
+        }
+        order = List.of();
+    }
+
+    /**
+     * Kahn's algorithm; registration order breaks ties.
+     */
+    private List<PluginBase> topologicalOrder() {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (PluginBase plugin : plugins.values()) {
+            for (String dependency : plugin.getDependencies()) {
+                if (!plugins.containsKey(dependency))
+                    throw new IllegalStateException(plugin.getPluginName() + " depends on missing plugin " + dependency);
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(plugin.getPluginName());
+            }
+            pending.put(plugin.getPluginName(), plugin.getDependencies().size());
+        }
+
+        Deque<String> ready = new ArrayDeque<>();
+        plugins.keySet().forEach(name -> {
+            if (pending.get(name) == 0) ready.add(name);
+        });
+
+        List<PluginBase> order = new ArrayList<>(plugins.size());
+        while (!ready.isEmpty()) {
+            String name = ready.poll();
+            order.add(plugins.get(name));
+            for (String dependent : dependents.getOrDefault(name, List.of())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) ready.add(dependent);
+            }
+        }
+
+        if (order.size() < plugins.size()) {
+            List<String> cycle = plugins.keySet().stream().filter(name -> pending.get(name) > 0).toList();
+            throw new IllegalStateException("Plugin dependency cycle among " + cycle);
+        }
+        return order;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * @param wallNanos    from {@link #enableAll()} until the last plugin finished
+     * @param timings      started plugins, in start order
+     * @param criticalPath the dependency chain that determined the total time, first plugin first
+     * @param failures     plugins that failed or were skipped, with the reason
+     */
+    public record StartupReport(long wallNanos, List<PluginTiming> timings, List<String> criticalPath,
+                                Map<String, Throwable> failures) {
+
+        static StartupReport of(long wallNanos, List<PluginBase> order, Map<String, PluginTiming> timings,
+                                Map<String, Throwable> failures) {
+            List<PluginTiming> started = timings.values().stream()
+                    .sorted(Comparator.comparingLong(PluginTiming::startNanos)).toList();
+
+            // Walk back from the plugin that finished last through the dependency that finished last
+            Map<String, PluginBase> byName = new HashMap<>();
+            order.forEach(plugin -> byName.put(plugin.getPluginName(), plugin));
+            LinkedList<String> path = new LinkedList<>();
+            PluginTiming current = started.stream().max(Comparator.comparingLong(PluginTiming::endNanos)).orElse(null);
+            while (current != null) {
+                path.addFirst(current.plugin());
+                current = byName.get(current.plugin()).getDependencies().stream()
+                        .map(timings::get).filter(Objects::nonNull)
+                        .max(Comparator.comparingLong(PluginTiming::endNanos)).orElse(null);
+            }
+
+            return new StartupReport(wallNanos, started, List.copyOf(path), Map.copyOf(failures));
+        }
+
+        /**
+         * @return a human-readable breakdown, one line per plugin, then the critical path
+         */
+        public String format() {
+            long origin = timings.stream().mapToLong(PluginTiming::startNanos).min().orElse(0);
+            long serial = timings.stream().mapToLong(PluginTiming::totalNanos).sum();
+
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Started %d plugins in %.1f ms (%.1f ms if run one after another)%n",
+                    timings.size(), wallNanos / 1e6, serial / 1e6));
+            for (PluginTiming timing : timings) {
+                out.append(String.format("  %-24s at +%7.1f ms  total %7.1f ms  onEnable %7.1f ms",
+                        timing.plugin(), (timing.startNanos() - origin) / 1e6, timing.totalNanos() / 1e6,
+                        timing.enableNanos() / 1e6));
+                timing.taskNanos().forEach((task, nanos) -> out.append(String.format("  %s %.1f ms", task, nanos / 1e6)));
+                out.append(System.lineSeparator());
+            }
+            failures.forEach((name, error) -> out.append("  ").append(name).append(" did not start: ")
+                    .append(error.getMessage()).append(System.lineSeparator()));
+
+            out.append("Critical path: ").append(String.join(" -> ", criticalPath));
+            return out.toString();
+        }
+    }
+
+    public static final class Builder {
+
+        private int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        private Builder() {}
+
+        /** Plugins whose {@code onEnable} may run at the same time. */
+        public Builder parallelism(int threads) { this.parallelism = threads; return this; }
+
+        public PluginLifecycle build() {
+            if (parallelism <= 0)
+                throw new IllegalStateException("PluginLifecycle parallelism must be positive.");
+            return new PluginLifecycle(this);
+        }
+    }
+}
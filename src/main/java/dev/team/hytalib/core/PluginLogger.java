@@ -1,30 +1,114 @@
-package dev.team.hytalib.core;
-
-public class PluginLogger {
-
-    /*
-     * Using temp System prints, but will change when hytale has their own console logging system.
-     */
-
-    private final String prefix;
-
-    public PluginLogger(String pluginName) {
-        this.prefix = "[" + pluginName + "]";
-    }
-
-    public void info(String msg) {
-        System.out.println(prefix + " INFO: " + msg);
-    }
-
-    public void warn(String msg) {
-        System.out.println(prefix + " WARN: " + msg);
-    }
-
-    public void error(String msg) {
-        System.out.println(prefix + " ERROR: " + msg);
-    }
-
-    public void debug(String msg) {
-        System.out.println(prefix + " DEBUG: " + msg);
-    }
-}
\ No newline at end of file
+package dev.team.hytalib.core;
+
+import java.util.function.Supplier;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Levelled logger; events are written asynchronously by a {@link LogWriter}. The level is checked
+ * before anything else, so disabled calls cost a field read: pass a {@link Supplier} or a
+ * {@code "{}"} pattern instead of concatenating, and the message is only built when it is logged.
+ * <pre>{@code
+ * logger.debug("Loaded {} rows from {}", count, table);
+ * logger.debug(() -> expensiveDump());
+ * logger.error("Save failed", exception);
+ * }</pre>
+ */
+public class PluginLogger {
+
+    private static volatile LogLevel defaultLevel = LogLevel.INFO;
+    private static volatile LogWriter writer;
+
+    private final String prefix;
+    private volatile LogLevel level;
+
+    public PluginLogger(String pluginName) {
+        this.prefix = "[" + pluginName + "]";
+    }
+
+    /**
+     * Level of loggers that have none of their own.
+     */
+    public static void setDefaultLevel(LogLevel level) {
+        defaultLevel = level;
+    }
+
+    /**
+     * Replaces the backend of all loggers; the previous one is drained and closed.
+     */
+    public static synchronized void setWriter(LogWriter backend) {
+        LogWriter previous = writer;
+        writer = backend;
+        if (previous != null && previous != backend) previous.close();
+    }
+
+    /**
+     * The current backend; a console writer is started on first use.
+     */
+    public static LogWriter writer() {
+        LogWriter current = writer;
+        return current != null ? current : defaultWriter();
+    }
+
+    private static synchronized LogWriter defaultWriter() {
+        if (writer == null) {
+            LogWriter console = LogWriter.builder().sink(LogSink.console()).build();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writer().close(), "Hytalib-log-shutdown"));
+            writer = console;
+        }
+        return writer;
+    }
+
+    /**
+     * @param level this logger's threshold, or {@code null} to follow the default level
+     */
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        LogLevel threshold = this.level;
+        return level.compareTo(threshold != null ? threshold : defaultLevel) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void log(LogLevel level, String msg) {
+        if (isEnabled(level)) writer().publish(prefix, level, msg, null, null);
+    }
+
+    public void log(LogLevel level, Supplier<String> msg) {
+        if (isEnabled(level)) writer().publish(prefix, level, msg.get(), null, null);
+    }
+
+    /**
+     * @param pattern message with a {@code {}} per argument, filled in on the writer thread
+     */
+    public void log(LogLevel level, String pattern, Object... args) {
+        if (isEnabled(level)) writer().publish(prefix, level, pattern, args, null);
+    }
+
+    public void log(LogLevel level, String msg, Throwable thrown) {
+        if (isEnabled(level)) writer().publish(prefix, level, msg, null, thrown);
+    }
+
+    public void info(String msg) { log(LogLevel.INFO, msg); }
+    public void info(Supplier<String> msg) { log(LogLevel.INFO, msg); }
+    public void info(String pattern, Object... args) { log(LogLevel.INFO, pattern, args); }
+
+    public void warn(String msg) { log(LogLevel.WARN, msg); }
+    public void warn(Supplier<String> msg) { log(LogLevel.WARN, msg); }
+    public void warn(String pattern, Object... args) { log(LogLevel.WARN, pattern, args); }
+    public void warn(String msg, Throwable thrown) { log(LogLevel.WARN, msg, thrown); }
+
+    public void error(String msg) { log(LogLevel.ERROR, msg); }
+    public void error(Supplier<String> msg) { log(LogLevel.ERROR, msg); }
+    public void error(String pattern, Object... args) { log(LogLevel.ERROR, pattern, args); }
+    public void error(String msg, Throwable thrown) { log(LogLevel.ERROR, msg, thrown); }
+
+    public void debug(String msg) { log(LogLevel.DEBUG, msg); }
+    public void debug(Supplier<String> msg) { log(LogLevel.DEBUG, msg); }
+    public void debug(String pattern, Object... args) { log(LogLevel.DEBUG, pattern, args); }
+}
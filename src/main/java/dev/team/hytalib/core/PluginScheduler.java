@@ -0,0 +1,184 @@
+package dev.team.hytalib.core;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * One plugin's view of the shared {@link TaskScheduler}. Delays and periods are in ticks.
+ * Everything scheduled here is cancelled when the plugin is disabled.
+ * <pre>{@code
+ * getScheduler().runTimer(this::updateScoreboards, 20, 20);          // main thread, every second
+ * getScheduler().runTimerAsync(this::saveStats, 6000, 6000);         // virtual thread, every 5 minutes
+ * getScheduler().supplyAsync(this::loadFromDisk)
+ *         .thenAcceptAsync(this::apply, getScheduler().mainThread()); // back on the main thread
+ * }</pre>
+ */
+public final class PluginScheduler {
+
+    private final TaskScheduler scheduler;
+    private final String pluginName;
+    private final PluginLogger logger;
+    private final Set<ScheduledTask> tasks = ConcurrentHashMap.newKeySet();
+    private final Executor mainThread;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    PluginScheduler(TaskScheduler scheduler, String pluginName) {
+        this.scheduler = scheduler;
+        this.pluginName = pluginName;
+        this.logger = new PluginLogger(pluginName);
+        this.mainThread = this::runOnMainThread;
+    }
+
+    public ScheduledTask runLater(Runnable task, long delayTicks) {
+        return submit(task, false, delayTicks, 0);
+    }
+
+    public ScheduledTask runTimer(Runnable task, long delayTicks, long periodTicks) {
+        return submit(task, false, delayTicks, requirePeriod(periodTicks));
+    }
+
+    /**
+     * Runs {@code task} on a virtual thread after the delay; it may block.
+     */
+    public ScheduledTask runLaterAsync(Runnable task, long delayTicks) {
+        return submit(task, true, delayTicks, 0);
+    }
+
+    /**
+     * Like {@link #runLaterAsync}, repeating. A period is skipped while the previous run is still going.
+     */
+    public ScheduledTask runTimerAsync(Runnable task, long delayTicks, long periodTicks) {
+        return submit(task, true, delayTicks, requirePeriod(periodTicks));
+    }
+
+    /**
+     * Runs {@code task} on a virtual thread now.
+     */
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Computes a value on a virtual thread now. Disabling the plugin cancels the future.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ScheduledTask task = new ScheduledTask(this, () -> {
+            try {
+                result.complete(supplier.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }, true, 0, 0);
+        // Either side cancels the other; the cancelled flag stops the ping-pong
+        task.onCancel = () -> result.cancel(false);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) task.cancel();
+        });
+
+        tasks.add(task);
+        task.tryStart();
+        task.executing(scheduler.asyncLane().submit(task::run));
+        return result;
+    }
+
+    /**
+     * Queues {@code work} for the start of the next tick on the main thread.
+     */
+    public void runOnMainThread(Runnable work) {
+        scheduler.runOnMainThread(work);
+    }
+
+    /**
+     * Computes a value on the main thread, e.g. from an async task that needs world state.
+     */
+    public <T> CompletableFuture<T> callOnMainThread(Supplier<T> supplier) {
+        if (scheduler.isMainThread()) {
+            try {
+                return CompletableFuture.completedFuture(supplier.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(supplier, mainThread);
+    }
+
+    /**
+     * Executor that hands work to the main thread; use with {@code thenAcceptAsync} and friends.
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Cancels every task of this plugin; running async tasks are interrupted.
+     */
+    public void cancelAll() {
+        for (ScheduledTask task : List.copyOf(tasks)) task.cancel();
+    }
+
+    /**
+     * @return the tasks that are scheduled or running
+     */
+    public List<ScheduledTask> tasks() {
+        return List.copyOf(tasks);
+    }
+
+    public Stats stats() {
+        return new Stats(tasks.size(), runs.get(), totalNanos.get(), maxNanos.get());
+    }
+
+    /**
+     * @param active     tasks scheduled or running
+     * @param runs       task runs since the plugin started scheduling
+     * @param totalNanos run time of those runs
+     * @param maxNanos   longest single run
+     */
+    public record Stats(int active, long runs, long totalNanos, long maxNanos) {
+    }
+
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    private ScheduledTask submit(Runnable body, boolean async, long delayTicks, long periodTicks) {
+        if (delayTicks < 0) throw new IllegalArgumentException("delayTicks must not be negative");
+
+        ScheduledTask task = new ScheduledTask(this, body, async, delayTicks, periodTicks);
+        tasks.add(task);
+        scheduler.schedule(task);
+        return task;
+    }
+
+    private static long requirePeriod(long periodTicks) {
+        if (periodTicks <= 0) throw new IllegalArgumentException("periodTicks must be positive");
+        return periodTicks;
+    }
+
+    void recordRun(long nanos) {
+        runs.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void forget(ScheduledTask task) {
+        tasks.remove(task);
+    }
+
+    PluginLogger logger() {
+        return logger;
+    }
+}
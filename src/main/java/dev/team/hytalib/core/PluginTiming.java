@@ -0,0 +1,21 @@
+package dev.team.hytalib.core;
+
+import java.util.Map;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * How long one plugin took to start.
+ *
+ * @param startNanos  {@link System#nanoTime()} when {@code onEnable} was called
+ * @param enableNanos time spent in {@code onEnable} itself
+ * @param taskNanos   time of each async startup task, by name
+ * @param totalNanos  from {@code onEnable} until the last startup task completed
+ */
+public record PluginTiming(String plugin, long startNanos, long enableNanos, Map<String, Long> taskNanos,
+                           long totalNanos) {
+
+    public long endNanos() {
+        return startNanos + totalNanos;
+    }
+}
@@ -0,0 +1,109 @@
+package dev.team.hytalib.core;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Handle of a task submitted to a {@link PluginScheduler}, with its run-time accounting.
+ */
+public final class ScheduledTask {
+
+    final PluginScheduler owner;
+    final Runnable body;
+    final boolean async;
+    final long delayTicks;
+    final long periodTicks;
+
+    // Timing wheel state, only touched by the ticking thread
+    long deadline;
+    ScheduledTask next;
+
+    private volatile boolean cancelled;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Future<?> execution;
+    /** Settles whatever waits on this task, e.g. the future of a {@code supplyAsync}. */
+    Runnable onCancel;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    ScheduledTask(PluginScheduler owner, Runnable body, boolean async, long delayTicks, long periodTicks) {
+        this.owner = owner;
+        this.body = body;
+        this.async = async;
+        this.delayTicks = delayTicks;
+        this.periodTicks = periodTicks;
+    }
+
+    /**
+     * Stops future runs; a running async task is interrupted.
+     */
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        // Before the interrupt, so an interrupted body cannot complete the waiting future first
+        if (onCancel != null) onCancel.run();
+        Future<?> current = execution;
+        if (current != null) current.cancel(true);
+        owner.forget(this);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isRepeating() {
+        return periodTicks > 0;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public long runs() {
+        return runs.get();
+    }
+
+    public long totalNanos() {
+        return totalNanos.get();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return {@code false} if the previous run of this task is still going (async only)
+     */
+    boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    void executing(Future<?> future) {
+        this.execution = future;
+        // Cancelled between dispatch and here
+        if (cancelled) future.cancel(true);
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        try {
+            body.run();
+        } catch (RuntimeException | Error e) {
+            owner.logger().error("Task " + body.getClass().getName() + " failed", e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            runs.incrementAndGet();
+            totalNanos.addAndGet(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+            owner.recordRun(elapsed);
+            execution = null;
+            running.set(false);
+            if (periodTicks <= 0) owner.forget(this);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package dev.team.hytalib.core;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * The scheduler shared by all plugins; plugins use it through {@link PluginBase#getScheduler()}.
+ * The server calls {@link #tick()} on its main thread once per tick, which
+ * <ol>
+ *     <li>runs the work handed to the main thread since the last tick,</li>
+ *     <li>advances a hierarchical timing wheel by one tick and runs (or dispatches) the tasks that came due.</li>
+ * </ol>
+ * The wheel has four levels of 64 slots, covering 64, 4096, 262144 and 16777216 ticks; scheduling and
+ * cancelling are O(1) however many tasks are pending. Async tasks run on virtual threads, so blocking
+ * work (I/O, database calls) does not need a thread pool per plugin.
+ */
+public final class TaskScheduler {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+    private static final TaskScheduler SHARED = new TaskScheduler();
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final ScheduledTask[][] wheel = new ScheduledTask[LEVELS][SLOTS];
+    // Written by the main thread only, read from any thread through currentTick()
+    private volatile long currentTick;
+
+    private final Queue<ScheduledTask> incoming = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> mainThreadQueue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue; counted after each add, so never ahead of it
+    private final AtomicInteger mainThreadPending = new AtomicInteger();
+    private final ExecutorService asyncLane =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Hytalib-async-", 0).factory());
+    private final Map<String, PluginScheduler> plugins = new ConcurrentHashMap<>();
+    private volatile Thread mainThread;
+
+    private TaskScheduler() {}
+
+    public static TaskScheduler get() {
+        return SHARED;
+    }
+
+    /**
+     * The scheduler view of one plugin; its tasks can be cancelled together.
+     */
+    public PluginScheduler forPlugin(String pluginName) {
+        return plugins.computeIfAbsent(pluginName, name -> new PluginScheduler(this, name));
+    }
+
+    /**
+     * @return ticks since the scheduler started
+     */
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return {@code true} on the thread that calls {@link #tick()}
+     */
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+
+    /**
+     * Advances the scheduler by one tick. Must always be called from the server's main thread.
+     */
+    public void tick() {
+        mainThread = Thread.currentThread();
+
+        // Only what was queued before this tick: work that queues more work waits for the next one
+        for (int n = mainThreadPending.get(); n > 0; n--) {
+            Runnable work = mainThreadQueue.poll();
+            if (work == null) break;
+            mainThreadPending.decrementAndGet();
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Main-thread task " + work.getClass().getName() + " failed", e);
+            }
+        }
+
+        for (ScheduledTask task; (task = incoming.poll()) != null; ) {
+            if (!task.isCancelled()) insert(task, currentTick + Math.max(1, task.delayTicks));
+        }
+
+        currentTick++;
+        cascade();
+        int slot = (int) (currentTick & SLOT_MASK);
+        ScheduledTask due = wheel[0][slot];
+        wheel[0][slot] = null;
+        while (due != null) {
+            ScheduledTask next = due.next;
+            due.next = null;
+            fire(due);
+            due = next;
+        }
+    }
+
+    /**
+     * Moves the tasks of the next higher slot down when a lower level wraps around.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) return;
+
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            ScheduledTask task = wheel[level][slot];
+            wheel[level][slot] = null;
+            while (task != null) {
+                ScheduledTask next = task.next;
+                task.next = null;
+                if (!task.isCancelled()) insert(task, task.deadline);
+                task = next;
+            }
+        }
+    }
+
+    private void insert(ScheduledTask task, long deadline) {
+        task.deadline = deadline;
+        long remaining = deadline - currentTick;
+
+        int level = 0;
+        long target = deadline;
+        if (remaining >= MAX_SPAN) {
+            // Park in the top level; it is re-inserted with the rest of its delay when that slot cascades
+            level = LEVELS - 1;
+            target = currentTick + MAX_SPAN - 1;
+        } else {
+            while (remaining >= (1L << (SLOT_BITS * (level + 1)))) level++;
+        }
+        // Overdue: the current slot is processed right after the cascade
+        if (remaining < 0) target = currentTick;
+
+        int slot = (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+        task.next = wheel[level][slot];
+        wheel[level][slot] = task;
+    }
+
+    private void fire(ScheduledTask task) {
+        if (task.isCancelled()) return;
+
+        if (task.async) {
+            // A repeating task whose last run is still going skips this period instead of piling up
+            if (task.tryStart()) {
+                try {
+                    task.executing(asyncLane.submit(task::run));
+                } catch (RejectedExecutionException e) {
+                    task.cancel();
+                    return;
+                }
+            }
+        } else if (task.tryStart()) {
+            task.run();
+        }
+
+        if (task.isRepeating() && !task.isCancelled()) insert(task, currentTick + task.periodTicks);
+    }
+
+    void schedule(ScheduledTask task) {
+        incoming.add(task);
+    }
+
+    void runOnMainThread(Runnable work) {
+        mainThreadQueue.add(work);
+        mainThreadPending.incrementAndGet();
+    }
+
+    ExecutorService asyncLane() {
+        return asyncLane;
+    }
+}
@@ -0,0 +1,152 @@
+package dev.team.hytalib.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.*;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Runs database work on virtual threads. At most {@code permits} tasks touch the pool at once
+ * (the pool size), the rest park cheaply instead of queueing inside HikariCP.
+ * Cancelling or timing out the returned future cancels the running statement.
+ */
+final class AsyncQueryExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final DatabaseGuard guard;
+
+    /**
+     * @param guard sheds load before work is queued; may be null
+     */
+    AsyncQueryExecutor(String name, int permits, DatabaseGuard guard) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-async-", 0).factory());
+        this.permits = new Semaphore(Math.max(1, permits), true);
+        this.guard = guard;
+    }
+
+    <T> CompletableFuture<T> submit(Work<T> work, long timeoutMs) {
+        return submit(work, timeoutMs, true);
+    }
+
+    /**
+     * @param timed {@code false} for work that is long by design, so the guard does not count it as slow
+     */
+    <T> CompletableFuture<T> submit(Work<T> work, long timeoutMs, boolean timed) {
+        long start;
+        try {
+            start = guard != null ? guard.acquire() : 0L;
+        } catch (DatabaseUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Task<T> task = new Task<>(result, work);
+
+        try {
+            task.future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            if (guard != null) guard.release(start, null);
+            result.completeExceptionally(new IllegalStateException("Database is closed", e));
+            return result;
+        }
+
+        result.whenComplete((v, t) -> {
+            if (result.isCancelled() || t instanceof TimeoutException) task.cancel();
+            if (guard != null) guard.release(start, t, timed);
+        });
+        if (timeoutMs > 0) result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    int available() {
+        return permits.availablePermits();
+    }
+
+    void shutdown(long awaitMs) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(awaitMs, TimeUnit.MILLISECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run(Context context) throws Exception;
+    }
+
+    /**
+     * Work on a connection supplied by the caller, e.g. the SQLite write connection.
+     */
+    @FunctionalInterface
+    interface ConnectionWork<T> {
+        T run(Context context, Connection connection) throws Exception;
+    }
+
+    /**
+     * Lets running work register its statement so it can be cancelled from another thread.
+     */
+    interface Context {
+        void register(Statement statement) throws SQLException;
+    }
+
+    private final class Task<T> implements Runnable, Context {
+
+        private final CompletableFuture<T> result;
+        private final Work<T> work;
+        private volatile Future<?> future;
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+
+        private Task(CompletableFuture<T> result, Work<T> work) {
+            this.result = result;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(new CancellationException("Query cancelled before it started"));
+                return;
+            }
+
+            try {
+                if (result.isDone()) return;
+                result.complete(work.run(this));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                statement = null;
+                permits.release();
+            }
+        }
+
+        @Override
+        public void register(Statement statement) throws SQLException {
+            this.statement = statement;
+            if (cancelled) throw new SQLException("Query cancelled");
+        }
+
+        void cancel() {
+            cancelled = true;
+
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException ignored) {
+                }
+            }
+
+            Future<?> f = future;
+            if (f != null) f.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.PluginLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Write-behind upserts for one table. Rows are queued by key; a second write to the same key
+ * before the next flush replaces the first one. Every flush sends the pending rows as JDBC batches
+ * inside a single transaction, using the upsert syntax of the database type.
+ * <p>
+ * Rows are passed as key column values followed by value column values, in the order they were declared.
+ * <p>
+ * A failed flush is retried with the next one while the database is unreachable. If the rows themselves are
+ * at fault (constraint violation, wrong type, ...) or a flush failed {@code maxAttempts} times, the batch is
+ * split until the failing rows are found; those are dropped and handed to the {@code onDroppedRow} callback,
+ * so one bad row cannot block the queue.
+ */
+public final class BatchWriter implements AutoCloseable {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private final JdbcDatabaseImpl database;
+    private final String table;
+    private final String sql;
+    private final int keyCount;
+    private final int columnCount;
+    private final int maxPending;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+    private final long writeTimeoutNanos;
+    private final int maxAttempts;
+    private final BiConsumer<Object[], Exception> onDroppedRow;
+    private final LatencyHistogram latency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private LinkedHashMap<List<Object>, Object[]> pending = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledFuture<?> periodicFlush;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private volatile boolean closed;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+    /** Flushes that failed in a row without a connection problem; guarded by flushLock. */
+    private int failedAttempts;
+    private volatile int lastBatchSize;
+    private volatile int largestBatchSize;
+
+    private BatchWriter(Builder builder) {
+        this.database = builder.database;
+        this.table = builder.table;
+        this.sql = SqlDialect.upsert(database.getType(), table, builder.keys, builder.columns);
+        this.keyCount = builder.keys.size();
+        this.columnCount = builder.keys.size() + builder.columns.size();
+        this.maxPending = builder.maxPending;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.flushIntervalMs = builder.flushIntervalMs;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(builder.writeTimeoutMs);
+        this.maxAttempts = builder.maxAttempts;
+        this.onDroppedRow = builder.onDroppedRow;
+        this.latency = database.metrics().statement("batch:" + table);
+
+        this.scheduler = database.maintenanceExecutor();
+        this.periodicFlush = scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    static Builder builder(JdbcDatabaseImpl database, String table) {
+        return new Builder(database, table);
+    }
+
+    /**
+     * Queues a row, blocking while the queue is full (backpressure), at most for the write timeout.
+     * Writes to a key that is already queued never block.
+     *
+     * @throws IllegalStateException if the writer is closed or the queue stayed full for the write timeout
+     */
+    public void write(Object... row) {
+        try {
+            if (!offer(row, writeTimeoutNanos)) {
+                if (closed) throw new IllegalStateException("BatchWriter for " + table + " is closed");
+                throw new IllegalStateException("BatchWriter for " + table + " stayed full for "
+                        + TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for BatchWriter capacity", e);
+        }
+    }
+
+    /**
+     * Queues a row without blocking; returns {@code false} if the queue is full.
+     * Prefer this on the server thread.
+     */
+    public boolean tryWrite(Object... row) {
+        try {
+            return offer(row, 0L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean offer(Object[] row, long timeoutNanos) throws InterruptedException {
+        if (row.length != columnCount)
+            throw new IllegalArgumentException("Expected " + columnCount + " values for " + table + " but got " + row.length);
+
+        List<Object> key = Arrays.asList(Arrays.copyOf(row, keyCount));
+        Object[] values = row.clone();
+        int size;
+
+        lock.lock();
+        try {
+            while (!closed && pending.size() >= maxPending && !pending.containsKey(key)) {
+                if (timeoutNanos <= 0L) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                timeoutNanos = notFull.awaitNanos(timeoutNanos);
+            }
+            if (closed) return false;
+
+            if (pending.put(key, values) != null) coalesced.incrementAndGet();
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+
+        written.incrementAndGet();
+        if (size >= maxBatchSize && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return true;
+    }
+
+    /**
+     * Writes everything queued so far. If the database is unreachable, or a retryable error happened fewer than
+     * {@code maxAttempts} times, the rows are re-queued (unless a newer write replaced them) and the error is
+     * thrown. Otherwise the failing rows are isolated and dropped, and the rest is written.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+
+            LinkedHashMap<List<Object>, Object[]> rows;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) return;
+                rows = pending;
+                pending = new LinkedHashMap<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                writeRows(rows.values());
+                flushedRows.addAndGet(rows.size());
+                failedAttempts = 0;
+            } catch (SQLException | RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                boolean retry = SqlErrors.isConnectionFailure(e)
+                        || (!SqlErrors.isPermanent(e) && ++failedAttempts < maxAttempts);
+                if (retry) {
+                    requeue(rows);
+                    throw e;
+                }
+                failedAttempts = 0;
+                isolate(new ArrayList<>(rows.entrySet()));
+            }
+        }
+    }
+
+    /**
+     * Writes {@code rows} in halves, recursively, until every row is either written or found to fail on its own.
+     * Stops and re-queues what is left if the database becomes unreachable.
+     */
+    private void isolate(List<Map.Entry<List<Object>, Object[]>> rows) throws SQLException {
+        Deque<List<Map.Entry<List<Object>, Object[]>>> work = new ArrayDeque<>();
+        work.push(rows);
+
+        while (!work.isEmpty()) {
+            List<Map.Entry<List<Object>, Object[]>> chunk = work.pop();
+            try {
+                writeRows(chunk.stream().map(Map.Entry::getValue).toList());
+                flushedRows.addAndGet(chunk.size());
+            } catch (SQLException | RuntimeException e) {
+                if (SqlErrors.isConnectionFailure(e)) {
+                    LinkedHashMap<List<Object>, Object[]> left = new LinkedHashMap<>();
+                    chunk.forEach(entry -> left.put(entry.getKey(), entry.getValue()));
+                    work.forEach(rest -> rest.forEach(entry -> left.put(entry.getKey(), entry.getValue())));
+                    requeue(left);
+                    throw e;
+                }
+
+                if (chunk.size() == 1) {
+                    drop(chunk.get(0).getValue(), e);
+                } else {
+                    int middle = chunk.size() / 2;
+                    work.push(chunk.subList(middle, chunk.size()));
+                    work.push(chunk.subList(0, middle));
+                }
+            }
+        }
+    }
+
+    private void drop(Object[] row, Exception error) {
+        droppedRows.incrementAndGet();
+        LOGGER.error("BatchWriter for " + table + " dropped a row that cannot be written: " + error.getMessage());
+        if (onDroppedRow == null) return;
+        try {
+            onDroppedRow.accept(row.clone(), error);
+        } catch (RuntimeException e) {
+            LOGGER.error("onDroppedRow callback of BatchWriter for " + table + " failed", e);
+        }
+    }
+
+    private void writeRows(Collection<Object[]> rows) throws SQLException {
+        try (Connection connection = database.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int inBatch = 0;
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) statement.setObject(i + 1, row[i]);
+                    statement.addBatch();
+
+                    if (++inBatch == maxBatchSize) {
+                        executeBatch(statement, inBatch);
+                        inBatch = 0;
+                    }
+                }
+                if (inBatch > 0) executeBatch(statement, inBatch);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void executeBatch(PreparedStatement statement, int size) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            statement.executeBatch();
+        } finally {
+            database.metrics().record(latency, "batch:" + table, sql, null, start);
+        }
+        recordBatch(size);
+    }
+
+    private void recordBatch(int size) {
+        batches.incrementAndGet();
+        lastBatchSize = size;
+        if (size > largestBatchSize) largestBatchSize = size;
+    }
+
+    private void requeue(LinkedHashMap<List<Object>, Object[]> rows) {
+        lock.lock();
+        try {
+            LinkedHashMap<List<Object>, Object[]> merged = new LinkedHashMap<>(rows);
+            merged.putAll(pending);
+            pending = merged;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("BatchWriter flush for " + table + " failed, will retry: " + e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        int depth;
+        lock.lock();
+        try {
+            depth = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(depth, written.get(), coalesced.get(), rejected.get(), flushedRows.get(),
+                batches.get(), lastBatchSize, largestBatchSize, failedFlushes.get(), droppedRows.get());
+    }
+
+    /**
+     * Stops accepting writes and drains the queue. Blocked writers are released.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        periodicFlush.cancel(false);
+
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            throw new RuntimeException("Failed to drain BatchWriter for " + table
+                    + " (" + stats().pending() + " rows not written)", e);
+        } finally {
+            database.unregister(this);
+        }
+    }
+
+    /**
+     * @param pending         rows currently queued (queue depth)
+     * @param written         rows accepted since creation
+     * @param coalesced       writes that replaced a queued row for the same key
+     * @param rejected        writes refused by {@link #tryWrite} because the queue was full
+     * @param flushedRows     rows written to the database
+     * @param batches         {@code executeBatch} calls
+     * @param lastBatchSize   size of the most recent batch
+     * @param largestBatchSize largest batch so far
+     * @param failedFlushes   flushes that were rolled back
+     * @param droppedRows     rows given up on because they failed on their own
+     */
+    public record Stats(int pending, long written, long coalesced, long rejected, long flushedRows,
+                        long batches, int lastBatchSize, int largestBatchSize, long failedFlushes,
+                        long droppedRows) {
+    }
+
+    public static final class Builder {
+
+        private final JdbcDatabaseImpl database;
+        private final String table;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> columns = new ArrayList<>();
+        private long flushIntervalMs = 1000;
+        private int maxPending = 10000;
+        private int maxBatchSize = 500;
+        private long writeTimeoutMs = 30_000;
+        private int maxAttempts = 3;
+        private BiConsumer<Object[], Exception> onDroppedRow;
+
+        private Builder(JdbcDatabaseImpl database, String table) {
+            this.database = database;
+            this.table = table;
+        }
+
+        public Builder key(String... keyColumns) { keys.addAll(List.of(keyColumns)); return this; }
+        public Builder columns(String... valueColumns) { columns.addAll(List.of(valueColumns)); return this; }
+        public Builder flushInterval(long ms) { this.flushIntervalMs = ms; return this; }
+        public Builder maxPending(int rows) { this.maxPending = rows; return this; }
+        public Builder maxBatchSize(int rows) { this.maxBatchSize = rows; return this; }
+        /** Longest time {@link #write} waits for queue space. */
+        public Builder writeTimeout(long ms) { this.writeTimeoutMs = ms; return this; }
+        /** Failed flushes (other than connection failures) before the batch is split to find bad rows. */
+        public Builder maxAttempts(int attempts) { this.maxAttempts = attempts; return this; }
+        /** Called with rows that were dropped because they cannot be written, and the error they caused. */
+        public Builder onDroppedRow(BiConsumer<Object[], Exception> callback) { this.onDroppedRow = callback; return this; }
+
+        public BatchWriter build() {
+            if (keys.isEmpty())
+                throw new IllegalStateException("BatchWriter requires at least one key column.");
+            if (flushIntervalMs <= 0 || maxPending <= 0 || maxBatchSize <= 0 || writeTimeoutMs <= 0 || maxAttempts <= 0)
+                throw new IllegalStateException("BatchWriter limits must be positive.");
+
+            BatchWriter writer = new BatchWriter(this);
+            database.register(writer);
+            return writer;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package dev.team.hytalib.db;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Caps how many database calls one plugin (or feature) has in flight, so it cannot take the whole pool.
+ * Calls over the cap fail immediately with {@link DatabaseUnavailableException.Reason#BULKHEAD_FULL}.
+ * <pre>{@code
+ * Bulkhead bulkhead = new Bulkhead("Leaderboards", 4);
+ * bulkhead.submit(() -> db.query(sql, binder, mapper));
+ * }</pre>
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent) {
+        if (maxConcurrent <= 0) throw new IllegalArgumentException("maxConcurrent must be positive");
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        if (!permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException(
+                    DatabaseUnavailableException.Reason.BULKHEAD_FULL, "Bulkhead " + name + " is full"));
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = future.whenComplete((value, error) -> permits.release());
+        // Cancelling the returned future must reach the call, or its statement keeps running (and the permit held)
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) future.cancel(true);
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,13 @@
+package dev.team.hytalib.db;
+
+import java.util.List;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Receives a streamed result set in chunks. The list is reused for the next chunk; copy it to keep rows.
+ */
+@FunctionalInterface
+public interface ChunkHandler<T> {
+    void handle(List<T> chunk) throws Exception;
+}
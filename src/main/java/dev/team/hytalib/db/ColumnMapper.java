@@ -0,0 +1,31 @@
+package dev.team.hytalib.db;
+
+import java.sql.SQLException;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Builds a {@link RowMapper} once per {@link SqlTemplate}, after column labels have been
+ * resolved to indices. The returned mapper should only read columns by index:
+ * <pre>{@code
+ * columns -> {
+ *     int uuid = columns.index("uuid"), coins = columns.index("coins");
+ *     return rs -> new UserData(UUID.fromString(rs.getString(uuid)), rs.getInt(coins));
+ * }
+ * }</pre>
+ */
+@FunctionalInterface
+public interface ColumnMapper<T> {
+
+    RowMapper<T> resolve(Columns columns) throws SQLException;
+
+    interface Columns {
+        /**
+         * @return the 1-based index of the column with this label (case-insensitive)
+         * @throws SQLException if the result set has no such column
+         */
+        int index(String label) throws SQLException;
+
+        int count();
+    }
+}
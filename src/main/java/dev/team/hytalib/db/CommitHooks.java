@@ -0,0 +1,94 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.PluginLogger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Wraps the connections handed out by {@link JdbcDatabaseImpl#getConnection()} so that work can be deferred
+ * until the caller's transaction commits, e.g. cache invalidation after {@link SqlTemplate#updateIn}.
+ * Hooks of a transaction that is rolled back, or left open when the connection is closed, are discarded.
+ */
+final class CommitHooks implements InvocationHandler {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private final Connection connection;
+    private final List<Runnable> pending = new ArrayList<>();
+
+    private CommitHooks(Connection connection) {
+        this.connection = connection;
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new CommitHooks(connection));
+    }
+
+    /**
+     * Runs {@code hook} after the current transaction of {@code connection} commits.
+     *
+     * @return {@code false} if the connection was not obtained from Hytalib, so commits cannot be observed
+     */
+    static boolean afterCommit(Connection connection, Runnable hook) {
+        if (!Proxy.isProxyClass(connection.getClass())
+                || !(Proxy.getInvocationHandler(connection) instanceof CommitHooks hooks)) return false;
+        hooks.pending.add(hook);
+        return true;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "toString" -> {
+                return connection.toString();
+            }
+        }
+
+        // Leaving a transaction through setAutoCommit(true) commits it
+        boolean committing = method.getName().equals("commit")
+                || (method.getName().equals("setAutoCommit") && Boolean.TRUE.equals(args[0]) && !connection.getAutoCommit());
+
+        Object result;
+        try {
+            result = method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+
+        if (committing) {
+            runPending();
+        } else if ((method.getName().equals("rollback") && (args == null || args.length == 0))
+                || method.getName().equals("close")) {
+            pending.clear();
+        }
+        return result;
+    }
+
+    private void runPending() {
+        if (pending.isEmpty()) return;
+        List<Runnable> hooks = List.copyOf(pending);
+        pending.clear();
+        for (Runnable hook : hooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("After-commit hook failed", e);
+            }
+        }
+    }
+}
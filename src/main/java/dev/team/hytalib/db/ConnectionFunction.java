@@ -0,0 +1,12 @@
+package dev.team.hytalib.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+@FunctionalInterface
+public interface ConnectionFunction<T> {
+    T apply(Connection connection) throws SQLException;
+}
@@ -1,12 +1,17 @@
 package dev.team.hytalib.db;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * HytaLab Studio code @ 2025
  */
 public class DatabaseBuilder {
 
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
     private DatabaseTypes type;
 
     private String host = "localhost";
@@ -18,6 +23,8 @@ public class DatabaseBuilder {
 
     private Properties properties = new Properties();
     private PoolSettings pool = new PoolSettings();
+    private final List<DatabaseBuilder> replicas = new ArrayList<>();
+    private boolean tiered;
 
     public static DatabaseBuilder create() { return new DatabaseBuilder(); }
 
@@ -43,17 +50,70 @@ public class DatabaseBuilder {
     public DatabaseBuilder connectionTimeout(long ms) { pool.connectionTimeout = ms; return this; }
     public DatabaseBuilder idleTimeout(long ms) { pool.idleTimeout = ms; return this; }
     public DatabaseBuilder maxLifetime(long ms) { pool.maxLifetime = ms; return this; }
+    public DatabaseBuilder queryTimeout(long ms) { pool.queryTimeout = ms; return this; }
+
+    /**
+     * SQLite only: WAL journal, one queued write connection that groups writes into transactions,
+     * and a read-only pool of {@link #maxPoolSize} connections for queries.
+     */
+    public DatabaseBuilder sqlitePerformanceMode(boolean enabled) { pool.sqlitePerformanceMode = enabled; return this; }
+
+    // --- Replication (MySQL) ---
+
+    /**
+     * Adds a read replica, described by its own builder (host, port, pool settings...).
+     * Database name, user and password default to the primary's.
+     */
+    public DatabaseBuilder replica(DatabaseBuilder replica) { replicas.add(replica); return this; }
+
+    /**
+     * After {@link JdbcDatabase#markWritten}, reads of that key stay on the primary for this long.
+     */
+    public DatabaseBuilder readYourWritesWindow(long ms) { pool.readYourWritesWindow = ms; return this; }
+
+    // --- Tiered storage ---
+
+    /**
+     * Builds a {@link TieredDatabase}: this MySQL or SQLite database as the durable tier,
+     * fronted by an in-memory H2 hot tier.
+     */
+    public DatabaseBuilder tiered(boolean enabled) { this.tiered = enabled; return this; }
+
+    // --- Resilience ---
+    public DatabaseBuilder circuitBreaker(boolean enabled) { pool.circuitBreaker = enabled; return this; }
+    /** Share of failed calls (0..1) among the last 100 that opens the breaker. */
+    public DatabaseBuilder failureRateThreshold(double rate) { pool.failureRateThreshold = rate; return this; }
+    /** Calls slower than this count as slow; the breaker also opens when most recent calls are slow. */
+    public DatabaseBuilder slowCallThreshold(long ms) { pool.slowCallThreshold = ms; return this; }
+    public DatabaseBuilder circuitOpenDuration(long ms) { pool.circuitOpenDuration = ms; return this; }
+    /**
+     * Off by default. When on, async calls beyond a latency-driven limit (queued calls included) fail at once
+     * with {@link DatabaseUnavailableException} instead of waiting for a connection.
+     */
+    public DatabaseBuilder adaptiveConcurrency(boolean enabled) { pool.adaptiveConcurrency = enabled; return this; }
+
+    // --- Instrumentation ---
+    public DatabaseBuilder poolName(String name) { pool.poolName = name; return this; }
+    public DatabaseBuilder slowQueryThreshold(long ms) { pool.slowQueryThreshold = ms; return this; }
+    public DatabaseBuilder logQueryParameters(boolean log) { pool.logQueryParameters = log; return this; }
 
     public Database build() {
         if (type == null)
             throw new IllegalStateException("DatabaseType is required.");
+        if (!replicas.isEmpty() && type != DatabaseTypes.MYSQL)
+            throw new IllegalStateException("Read replicas are only supported for MySQL.");
+        if (tiered && type != DatabaseTypes.MYSQL && type != DatabaseTypes.SQLITE)
+            throw new IllegalStateException("Tiered storage needs a MySQL or SQLite durable tier.");
 
-        return switch (type) {
+        Database database = switch (type) {
             case H2    -> buildH2();
             case MYSQL -> buildMySQL();
             case SQLITE -> buildSQLite();
             case REDIS -> buildRedis();
+            case GENERIC -> throw new IllegalStateException(
+                    "Other JDBC databases are opened with new JdbcDatabaseImpl(jdbcUrl, properties, settings).");
         };
+        return tiered ? new TieredDatabase((JdbcDatabaseImpl) database, pool) : database;
     }
 
     // --- JDBC Builders ---
@@ -63,18 +123,53 @@ public class DatabaseBuilder {
 
         String url = "jdbc:h2:" + filePath + ";AUTO_SERVER=TRUE";
         prepareProps();
-        return new JdbcDatabaseImpl(url, properties, pool);
+        return new JdbcDatabaseImpl(DatabaseTypes.H2, url, properties, pool);
     }
 
     private JdbcDatabase buildMySQL() {
         if (database == null)
             throw new IllegalStateException("MySQL requires database name.");
 
-        String url = "jdbc:mysql://" + host + ":" + (port > 0 ? port : 3306)
+        prepareProps();
+        applyMySqlStatementCache();
+        // Server-side cursors for statements with a fetch size (JdbcDatabase.stream); others are unaffected
+        properties.putIfAbsent("useCursorFetch", "true");
+
+        List<ReplicaRouter.Spec> replicaSpecs = new ArrayList<>();
+        for (DatabaseBuilder replica : replicas) {
+            Properties replicaProps = new Properties();
+            replicaProps.putAll(properties);
+            replicaProps.putAll(replica.properties);
+            if (replica.user != null) replicaProps.setProperty("user", replica.user);
+            if (replica.password != null) replicaProps.setProperty("password", replica.password);
+
+            String replicaUrl = mysqlUrl(replica.host, replica.port, replica.database != null ? replica.database : database);
+            replicaSpecs.add(new ReplicaRouter.Spec(replicaUrl, replicaProps, replica.pool));
+        }
+
+        return new JdbcDatabaseImpl(DatabaseTypes.MYSQL, mysqlUrl(host, port, database), properties, pool, replicaSpecs);
+    }
+
+    private static String mysqlUrl(String host, int port, String database) {
+        return "jdbc:mysql://" + host + ":" + (port > 0 ? port : 3306)
                 + "/" + database + "?useSSL=false&autoReconnect=true";
+    }
 
-        prepareProps();
-        return new JdbcDatabaseImpl(url, properties, pool);
+    /**
+     * Connector/J settings for repeated prepared statements (see {@link SqlTemplate}).
+     * Only fills in what {@link #property} did not set explicitly.
+     */
+    private void applyMySqlStatementCache() {
+        properties.putIfAbsent("cachePrepStmts", "true");
+        properties.putIfAbsent("prepStmtCacheSize", "250");
+        properties.putIfAbsent("prepStmtCacheSqlLimit", "2048");
+        properties.putIfAbsent("useServerPrepStmts", "true");
+        properties.putIfAbsent("useLocalSessionState", "true");
+        properties.putIfAbsent("rewriteBatchedStatements", "true");
+        properties.putIfAbsent("cacheResultSetMetadata", "true");
+        properties.putIfAbsent("cacheServerConfiguration", "true");
+        properties.putIfAbsent("elideSetAutoCommits", "true");
+        properties.putIfAbsent("maintainTimeStats", "false");
     }
 
     private JdbcDatabase buildSQLite() {
@@ -83,22 +178,39 @@ public class DatabaseBuilder {
 
         String url = "jdbc:sqlite:" + filePath;
         prepareProps();
-        return new JdbcDatabaseImpl(url, properties, pool);
+        if (pool.sqlitePerformanceMode) applySqlitePragmas();
+        return new JdbcDatabaseImpl(DatabaseTypes.SQLITE, url, properties, pool);
     }
 
-    private JdbcDatabase buildRedis() {
-        // not a jdbc database but for temp impl.
-
-
-
+    // --- Key-Value Builders ---
+    private RedisDatabase buildRedis() {
+        int index = 0;
+        if (database != null) {
+            try {
+                index = Integer.parseInt(database);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Redis database must be a numeric index, got: " + database);
+            }
+        }
+
+        return new RedisDatabaseImpl(host, port > 0 ? port : 6379, user, password, index, pool);
+    }
 
-        /// not subject to do redis --- all placeholder stuff.....
-        if (filePath == null)
-            throw new IllegalStateException("SQLite requires filePath.");
+    /**
+     * sqlite-jdbc applies these pragmas to every connection it opens; explicit {@link #property} values win.
+     */
+    private void applySqlitePragmas() {
+        properties.putIfAbsent("busy_timeout", String.valueOf(pool.connectionTimeout));
+        properties.putIfAbsent("cache_size", "-16384");     // 16 MiB per connection
+        properties.putIfAbsent("mmap_size", "268435456");   // 256 MiB
+        properties.putIfAbsent("temp_store", "MEMORY");
+    }
 
-        String url = "jdbc:sqlite:" + filePath;
-        prepareProps();
-        return new JdbcDatabaseImpl(url, properties, pool);
+    /**
+     * Unique per database, so pools (and their threads and metrics) can be told apart.
+     */
+    static String defaultPoolName(DatabaseTypes type) {
+        return "Hytalib-" + type.name().toLowerCase() + "-" + POOL_COUNTER.incrementAndGet();
     }
 
     private void prepareProps() {
@@ -114,5 +226,23 @@ public class DatabaseBuilder {
         public long connectionTimeout = 30000;
         public long idleTimeout = 600000;
         public long maxLifetime = 1800000;
+        /** Timeout for async queries; 0 disables it. */
+        public long queryTimeout = 0;
+        /** Pool name; generated if not set. */
+        public String poolName;
+        /** Statements slower than this are logged; 0 disables the slow-query log. */
+        public long slowQueryThreshold = 0;
+        /** Include bind parameter values in the slow-query log instead of only their types. */
+        public boolean logQueryParameters = false;
+        /** See {@link DatabaseBuilder#sqlitePerformanceMode(boolean)}. */
+        public boolean sqlitePerformanceMode = false;
+        /** See {@link DatabaseBuilder#readYourWritesWindow(long)}; 0 disables stickiness. */
+        public long readYourWritesWindow = 0;
+        /** See {@link DatabaseGuard}. */
+        public boolean circuitBreaker = true;
+        public double failureRateThreshold = 0.5;
+        public long slowCallThreshold = 2000;
+        public long circuitOpenDuration = 5000;
+        public boolean adaptiveConcurrency = false;
     }
 }
@@ -0,0 +1,284 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.PluginLogger;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Load shedding in front of one database, so a stalled server costs callers milliseconds, not the
+ * connection timeout.
+ * <ul>
+ *     <li>A circuit breaker opens when too many of the recent calls failed or were slow. While open,
+ *     calls fail immediately; after a cool-down a few probe calls decide whether it closes again.</li>
+ *     <li>An adaptive concurrency limit (opt-in, see {@link DatabaseBuilder#adaptiveConcurrency}) follows
+ *     observed latency: it grows while latency stays near the best seen and shrinks when latency climbs
+ *     (queueing), rejecting calls above it. Calls still waiting for a connection count towards it.</li>
+ * </ul>
+ * Rejected calls fail with {@link DatabaseUnavailableException}. Use {@link #onStateChange} to switch
+ * features to a degraded mode while the breaker is open.
+ */
+public final class DatabaseGuard {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface StateListener {
+        void onStateChange(State from, State to);
+    }
+
+    private static final int WINDOW = 100;
+    private static final int MIN_CALLS = 20;
+    private static final int HALF_OPEN_PROBES = 5;
+    private static final double SLOW_CALL_RATE = 0.8;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final long MIN_RTT_RESET_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final byte SUCCESS = 0, FAILURE = 1, SLOW = 2;
+
+    private final String name;
+    private final boolean breakerEnabled;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    // Breaker state, guarded by this
+    private final byte[] outcomes = new byte[WINDOW];
+    private int recorded, cursor, failures, slowCalls;
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int probes, probeSuccesses;
+
+    // Adaptive limit
+    private final boolean adaptive;
+    private final int minLimit, maxLimit;
+    private final Object limiterLock = new Object();
+    private volatile double limit;
+    private long minRtt = Long.MAX_VALUE, minRttSince;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+
+    DatabaseGuard(String name, DatabaseBuilder.PoolSettings pool) {
+        this.name = name;
+        this.breakerEnabled = pool.circuitBreaker;
+        this.failureRateThreshold = pool.failureRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(pool.slowCallThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(pool.circuitOpenDuration);
+
+        this.adaptive = pool.adaptiveConcurrency;
+        this.minLimit = Math.max(1, pool.maxPoolSize / 2);
+        this.maxLimit = Math.max(minLimit, pool.maxPoolSize * 8);
+        this.limit = Math.min(maxLimit, pool.maxPoolSize * 2);
+    }
+
+    public void onStateChange(StateListener listener) {
+        listeners.add(listener);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /**
+     * @return the current concurrency limit, or -1 if the adaptive limit is disabled
+     */
+    public int limit() {
+        return adaptive ? (int) limit : -1;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return calls rejected by the breaker or the limit since startup
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Admits an async call.
+     *
+     * @return the start time to pass to {@link #release}
+     * @throws DatabaseUnavailableException if the call is shed
+     */
+    long acquire() {
+        checkAvailable();
+
+        int current = inFlight.incrementAndGet();
+        if (adaptive && current > limit) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new DatabaseUnavailableException(DatabaseUnavailableException.Reason.OVERLOADED,
+                    name + " is over its concurrency limit (" + (int) limit + ")");
+        }
+        return System.nanoTime();
+    }
+
+    void release(long startNanos, Throwable error) {
+        release(startNanos, error, true);
+    }
+
+    /**
+     * @param timed {@code false} for calls that are long by design (chunked scans): only their failures count,
+     *              and their duration neither marks them slow nor moves the concurrency limit
+     */
+    void release(long startNanos, Throwable error, boolean timed) {
+        inFlight.decrementAndGet();
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        // Shed or cancelled calls say nothing about the database
+        if (cause instanceof CancellationException) return;
+        if (cause instanceof DatabaseUnavailableException unavailable
+                && unavailable.getReason() != DatabaseUnavailableException.Reason.CONNECTION_FAILED) return;
+
+        long rtt = System.nanoTime() - startNanos;
+        // Constraint violations, syntax errors and bugs in caller code say nothing about the database either
+        boolean failed = cause != null && SqlErrors.isTransient(cause);
+        record(failed ? FAILURE : timed && rtt >= slowCallNanos ? SLOW : SUCCESS);
+
+        if (adaptive) {
+            if (failed) decreaseLimit();
+            else if (cause == null && timed) updateLimit(rtt);
+        }
+    }
+
+    /**
+     * Fails fast while the breaker is open; used for synchronous {@code getConnection()} as well.
+     */
+    void checkAvailable() {
+        if (!breakerEnabled || state == State.CLOSED) return;
+
+        State next = null;
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    rejected.incrementAndGet();
+                    throw new DatabaseUnavailableException(DatabaseUnavailableException.Reason.CIRCUIT_OPEN,
+                            name + " is unavailable (circuit open)");
+                }
+                state = next = State.HALF_OPEN;
+                openedAt = System.nanoTime();
+                probes = probeSuccesses = 0;
+            }
+            // Probes that never reported back (cancelled) must not keep the breaker half-open forever
+            if (state == State.HALF_OPEN && probes >= HALF_OPEN_PROBES && System.nanoTime() - openedAt >= openNanos) {
+                openedAt = System.nanoTime();
+                probes = probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN && probes >= HALF_OPEN_PROBES) {
+                rejected.incrementAndGet();
+                throw new DatabaseUnavailableException(DatabaseUnavailableException.Reason.CIRCUIT_OPEN,
+                        name + " is recovering (circuit half-open)");
+            }
+            if (state == State.HALF_OPEN) probes++;
+        }
+        if (next != null) notify(State.OPEN, next);
+    }
+
+    void connectionFailed() {
+        record(FAILURE);
+        if (adaptive) decreaseLimit();
+    }
+
+    /**
+     * Successful synchronous acquisitions only matter for a recovering breaker.
+     */
+    void connectionAcquired() {
+        if (state != State.CLOSED) record(SUCCESS);
+    }
+
+    private void record(byte outcome) {
+        if (!breakerEnabled) return;
+
+        State from, to;
+        synchronized (this) {
+            from = state;
+            to = from == State.HALF_OPEN ? recordProbe(outcome) : recordClosed(outcome);
+            if (to == from) return;
+            state = to;
+            if (to == State.OPEN) openedAt = System.nanoTime();
+            if (to == State.CLOSED) resetWindow();
+        }
+        notify(from, to);
+    }
+
+    private State recordClosed(byte outcome) {
+        if (state == State.OPEN) return State.OPEN;
+
+        if (recorded == WINDOW) {
+            byte old = outcomes[cursor];
+            if (old == FAILURE) failures--;
+            else if (old == SLOW) slowCalls--;
+        } else {
+            recorded++;
+        }
+        outcomes[cursor] = outcome;
+        cursor = (cursor + 1) % WINDOW;
+        if (outcome == FAILURE) failures++;
+        else if (outcome == SLOW) slowCalls++;
+
+        if (recorded < MIN_CALLS) return State.CLOSED;
+        boolean tooManyFailures = failures >= failureRateThreshold * recorded;
+        boolean tooSlow = slowCalls >= SLOW_CALL_RATE * recorded;
+        return tooManyFailures || tooSlow ? State.OPEN : State.CLOSED;
+    }
+
+    private State recordProbe(byte outcome) {
+        if (outcome == FAILURE) return State.OPEN;
+        return ++probeSuccesses >= HALF_OPEN_PROBES ? State.CLOSED : State.HALF_OPEN;
+    }
+
+    private void resetWindow() {
+        recorded = cursor = failures = slowCalls = 0;
+    }
+
+    /**
+     * Gradient step: shrink in proportion to how far latency exceeds the tolerated minimum,
+     * and allow headroom of {@code sqrt(limit)} for queueing. Smoothed to avoid oscillation.
+     */
+    private void updateLimit(long rtt) {
+        synchronized (limiterLock) {
+            long now = System.nanoTime();
+            if (rtt < minRtt || now - minRttSince > MIN_RTT_RESET_NANOS) {
+                minRtt = Math.max(1, rtt);
+                minRttSince = now;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, LATENCY_TOLERANCE * minRtt / rtt));
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = clamp(limit * 0.8 + target * 0.2);
+        }
+    }
+
+    private void decreaseLimit() {
+        synchronized (limiterLock) {
+            limit = clamp(limit * 0.9);
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    private void notify(State from, State to) {
+        for (StateListener listener : listeners) {
+            try {
+                listener.onStateChange(from, to);
+            } catch (RuntimeException e) {
+                LOGGER.error("Database guard listener failed on " + from + " -> " + to, e);
+            }
+        }
+    }
+}
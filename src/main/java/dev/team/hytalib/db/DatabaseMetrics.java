@@ -0,0 +1,194 @@
+package dev.team.hytalib.db;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import dev.team.hytalib.core.Counter;
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.Metrics;
+import dev.team.hytalib.core.MetricsRegistry;
+import dev.team.hytalib.core.PluginLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Pool and statement metrics for one {@link JdbcDatabaseImpl}. HikariCP reports connection
+ * acquisition and usage through {@link MetricsTrackerFactory}; statement latencies are recorded
+ * per {@link SqlTemplate} name. Statements slower than the configured threshold are logged,
+ * with their bind parameters redacted unless parameter logging was enabled.
+ * <p>
+ * All of it is also published in the {@linkplain MetricsRegistry#library() library metrics},
+ * labelled with the pool name, until the database is closed. Two open databases never share a label:
+ * a name already in use gets a {@code -2}, {@code -3}... suffix.
+ */
+public final class DatabaseMetrics implements MetricsTrackerFactory {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    /** Histogram name for statements issued through the plain {@code query/update} methods. */
+    static final String AD_HOC = "ad-hoc";
+
+    /** Pool labels of the databases that are open, so closing one never removes another's series. */
+    private static final Set<String> LABELS = ConcurrentHashMap.newKeySet();
+
+    private final String poolName;
+    private final String label;
+    private final long slowQueryNanos;
+    private final boolean logParameters;
+
+    private final Metrics registry = MetricsRegistry.get().library();
+    private volatile PoolStats poolStats;
+    private final LatencyHistogram acquireNanos;
+    private final LatencyHistogram usageMillis;
+    private final Counter connectionTimeouts;
+    private final Counter slowQueries;
+    private final Map<String, LatencyHistogram> statements = new ConcurrentHashMap<>();
+
+    DatabaseMetrics(String poolName, DatabaseBuilder.PoolSettings pool) {
+        this.poolName = poolName;
+        String label = poolName;
+        for (int n = 2; !LABELS.add(label); n++) label = poolName + "-" + n;
+        this.label = label;
+        this.slowQueryNanos = pool.slowQueryThreshold * 1_000_000L;
+        this.logParameters = pool.logQueryParameters;
+
+        this.acquireNanos = registry.histogram("db_connection_acquire_nanos", "pool", label);
+        this.usageMillis = registry.histogram("db_connection_usage_millis", "pool", label);
+        this.connectionTimeouts = registry.counter("db_connection_timeouts_total", "pool", label);
+        this.slowQueries = registry.counter("db_slow_queries_total", "pool", label);
+    }
+
+    @Override
+    public IMetricsTracker create(String hikariPoolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        registry.gauge("db_connections_active", poolStats::getActiveConnections, "pool", label);
+        registry.gauge("db_connections_idle", poolStats::getIdleConnections, "pool", label);
+        registry.gauge("db_connections_pending", poolStats::getPendingThreads, "pool", label);
+        registry.gauge("db_connections_max", poolStats::getMaxConnections, "pool", label);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireNanos.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                connectionTimeouts.increment();
+            }
+        };
+    }
+
+    LatencyHistogram statement(String name) {
+        return statements.computeIfAbsent(name, n -> registry.histogram("db_statement_nanos", "pool", label, "statement", n));
+    }
+
+    /**
+     * Publishes the circuit breaker and concurrency limit; the state is 0 (closed), 1 (open) or 2 (half-open).
+     */
+    void register(DatabaseGuard guard) {
+        registry.gauge("db_circuit_state", () -> guard.state().ordinal(), "pool", label);
+        registry.gauge("db_concurrency_limit", guard::limit, "pool", label);
+        registry.gauge("db_in_flight", guard::inFlight, "pool", label);
+        registry.counter("db_guard_rejected_total", guard::rejected, "pool", label);
+    }
+
+    /**
+     * Removes this pool from the library metrics.
+     */
+    void unregister() {
+        registry.unregister("pool", label);
+        LABELS.remove(label);
+    }
+
+    /**
+     * Records the time since {@code startNanos} and logs the statement if it was slow.
+     *
+     * @param params bind parameters, or {@code null} if they are not known (custom binders)
+     */
+    void record(LatencyHistogram histogram, String name, String sql, Object[] params, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        histogram.record(elapsed);
+
+        if (slowQueryNanos > 0 && elapsed >= slowQueryNanos) {
+            slowQueries.increment();
+            LOGGER.warn("Slow query '" + name + "' on " + poolName + " took " + elapsed / 1_000_000 + " ms: "
+                    + sql + (params == null ? "" : " " + describe(params)));
+        }
+    }
+
+    private String describe(Object[] params) {
+        if (logParameters) return Arrays.toString(params);
+        return Arrays.stream(params)
+                .map(p -> p == null ? "null" : "<" + p.getClass().getSimpleName() + ">")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        Map<String, LatencyHistogram.Snapshot> perStatement = new TreeMap<>();
+        statements.forEach((name, histogram) -> perStatement.put(name, histogram.snapshot()));
+
+        return new Snapshot(poolName,
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                stats == null ? 0 : stats.getTotalConnections(),
+                stats == null ? 0 : stats.getMaxConnections(),
+                connectionTimeouts.sum(), slowQueries.sum(),
+                acquireNanos.snapshot(), usageMillis.snapshot(), perStatement);
+    }
+
+    /**
+     * Point-in-time copy of the metrics.
+     *
+     * @param acquireNanos   time threads waited for a pooled connection
+     * @param usageMillis    time connections were borrowed
+     * @param statementNanos execution latency per statement name
+     */
+    public record Snapshot(String poolName, int active, int idle, int pending, int total, int max,
+                           long connectionTimeouts, long slowQueries,
+                           LatencyHistogram.Snapshot acquireNanos, LatencyHistogram.Snapshot usageMillis,
+                           Map<String, LatencyHistogram.Snapshot> statementNanos) {
+
+        /**
+         * @return a human-readable report, one line per histogram
+         */
+        public String format() {
+            StringBuilder out = new StringBuilder();
+            out.append("Pool ").append(poolName)
+                    .append(": active=").append(active).append(" idle=").append(idle)
+                    .append(" pending=").append(pending).append(" total=").append(total).append('/').append(max)
+                    .append(" timeouts=").append(connectionTimeouts).append(" slow=").append(slowQueries).append('\n');
+
+            line(out, "acquire", acquireNanos, 1_000_000.0);
+            line(out, "usage", usageMillis, 1.0);
+            statementNanos.forEach((name, snapshot) -> line(out, name, snapshot, 1_000_000.0));
+            return out.toString();
+        }
+
+        public void writeTo(Path file) throws IOException {
+            Files.writeString(file, format());
+        }
+
+        private static void line(StringBuilder out, String name, LatencyHistogram.Snapshot s, double perMilli) {
+            out.append(String.format("  %-24s count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%n",
+                    name, s.count(), s.mean() / perMilli, s.p50() / perMilli, s.p90() / perMilli,
+                    s.p99() / perMilli, s.max() / perMilli));
+        }
+    }
+}
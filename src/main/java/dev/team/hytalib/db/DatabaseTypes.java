@@ -8,7 +8,9 @@ public enum DatabaseTypes {
     H2,
     MYSQL,
     SQLITE,
-    REDIS
+    REDIS,
+    /** Any other JDBC database; features that need dialect-specific SQL (upserts) are not available. */
+    GENERIC
 
     /*
      * Todo: ADD MORE IN DATABASE TYPES IN FUTURE
@@ -0,0 +1,37 @@
+package dev.team.hytalib.db;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Thrown (or used to fail a future) when the database is not asked at all, or could not hand out a
+ * connection. Callers can switch to a degraded mode instead of waiting for timeouts.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+    public enum Reason {
+        /** The circuit breaker is open after too many failed or slow calls. */
+        CIRCUIT_OPEN,
+        /** The adaptive concurrency limit is reached. */
+        OVERLOADED,
+        /** The caller's {@link Bulkhead} is full. */
+        BULKHEAD_FULL,
+        /** The pool failed to provide a connection. */
+        CONNECTION_FAILED
+    }
+
+    private final Reason reason;
+
+    public DatabaseUnavailableException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public DatabaseUnavailableException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -1,10 +1,118 @@
 package dev.team.hytalib.db;
 
 import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * HytaLab Studio code @ 2025
+ * <p>
+ * The async methods run on virtual threads, never on the caller's thread. Cancelling a returned future
+ * (or letting {@code orTimeout} expire) cancels the statement that is executing for it.
  */
 public interface JdbcDatabase extends Database {
     Connection getConnection();
-}
\ No newline at end of file
+
+    DatabaseTypes getType();
+
+    <T> CompletableFuture<List<T>> query(String sql, StatementBinder binder, RowMapper<T> mapper);
+
+    <T> CompletableFuture<Optional<T>> queryFirst(String sql, StatementBinder binder, RowMapper<T> mapper);
+
+    /**
+     * @return the number of affected rows
+     */
+    CompletableFuture<Integer> update(String sql, StatementBinder binder);
+
+    /**
+     * Streams rows lazily from a forward-only cursor, so memory stays flat however large the result is.
+     * Runs on the calling thread and holds a connection until the stream is exhausted or closed:
+     * use try-with-resources, off the server thread.
+     */
+    <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper);
+
+    /**
+     * @param fetchSize rows fetched per round trip
+     */
+    <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper, int fetchSize);
+
+    /**
+     * Streams rows to {@code handler} in chunks of {@code chunkSize}, e.g. for exports and migrations.
+     * Not subject to the query timeout; cancelling the future cancels the statement.
+     *
+     * @return the number of rows handled
+     */
+    <T> CompletableFuture<Long> forEachChunk(String sql, StatementBinder binder, RowMapper<T> mapper,
+                                             int chunkSize, ChunkHandler<T> handler);
+
+    /**
+     * Runs arbitrary work with a pooled connection; the connection is closed afterwards.
+     */
+    <T> CompletableFuture<T> supplyAsync(ConnectionFunction<T> work);
+
+    /**
+     * A view whose queries, templates and connections use a read replica (least busy first), falling back
+     * to the primary when none is configured or healthy. Writes through the view are rejected.
+     */
+    JdbcDatabase readOnly();
+
+    /**
+     * Like {@link #readOnly()}, but reads go to the primary while {@code key} is inside its
+     * read-your-writes window (see {@link #markWritten}).
+     */
+    JdbcDatabase readOnly(Object key);
+
+    /**
+     * Records a write for {@code key}, so reads through {@link #readOnly(Object)} see it during the
+     * builder's {@code readYourWritesWindow}. Does nothing without replicas.
+     */
+    void markWritten(Object key);
+
+    /**
+     * Circuit breaker and adaptive concurrency limit of this database; register
+     * {@link DatabaseGuard#onStateChange} callbacks here to degrade gracefully.
+     */
+    DatabaseGuard guard();
+
+    /**
+     * Pool and per-statement latency metrics; call {@link DatabaseMetrics#snapshot()} to read them.
+     */
+    DatabaseMetrics metrics();
+
+    /**
+     * Registers a reusable statement. Parameters are bound by index and columns are resolved
+     * to indices once, on the first execution.
+     *
+     * @param name used in logs and metrics
+     */
+    <T> SqlTemplate<T> template(String name, String sql, ColumnMapper<T> mapper);
+
+    /**
+     * Registers a reusable statement that returns no rows (INSERT, UPDATE, DELETE).
+     */
+    SqlTemplate<Void> template(String name, String sql);
+
+    /**
+     * Starts building a coalescing write-behind upsert pipeline for {@code table}.
+     */
+    BatchWriter.Builder batchWriter(String table);
+
+    /**
+     * Delivers the outcome of {@code future} on {@code executor}, e.g. the server's main thread.
+     */
+    default <T> void callback(CompletableFuture<T> future, Executor executor,
+                              Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((value, error) -> {
+            if (error == null) {
+                onSuccess.accept(value);
+            } else {
+                onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        }, executor);
+    }
+}
@@ -2,19 +2,94 @@ package dev.team.hytalib.db;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.PluginLogger;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * HytaLab Studio code @ 2025
  */
 public class JdbcDatabaseImpl implements JdbcDatabase {
 
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    /** sqlite-jdbc {@code open_mode} flag for read-only connections. */
+    private static final int SQLITE_OPEN_READONLY = 0x00000001;
+    static final int DEFAULT_FETCH_SIZE = 500;
+
     private final HikariDataSource dataSource;
+    private final DatabaseTypes type;
+    private final DatabaseBuilder.PoolSettings pool;
+    private final AsyncQueryExecutor async;
+    private final long queryTimeout;
+    private final DatabaseMetrics metrics;
+    private final LatencyHistogram adHocLatency;
+    private final SqliteWriter sqliteWriter;
+    private final ReplicaRouter replicas;
+    private final DatabaseGuard guard;
+    private final List<BatchWriter> writers = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService maintenance;
 
     public JdbcDatabaseImpl(String jdbcUrl, Properties props, DatabaseBuilder.PoolSettings pool) {
+        this(SqlDialect.fromUrl(jdbcUrl), jdbcUrl, props, pool);
+    }
+
+    public JdbcDatabaseImpl(DatabaseTypes type, String jdbcUrl, Properties props, DatabaseBuilder.PoolSettings pool) {
+        this(type, jdbcUrl, props, pool, List.of());
+    }
+
+    JdbcDatabaseImpl(DatabaseTypes type, String jdbcUrl, Properties props, DatabaseBuilder.PoolSettings pool,
+                     List<ReplicaRouter.Spec> replicaSpecs) {
+
+        HikariConfig config = poolConfig(jdbcUrl, props, pool,
+                pool.poolName != null ? pool.poolName : DatabaseBuilder.defaultPoolName(type));
+
+        // SQLite performance mode: one write connection (opened first, it switches the file to WAL)
+        // and a read-only pool for everything else.
+        if (type == DatabaseTypes.SQLITE && pool.sqlitePerformanceMode) {
+            this.sqliteWriter = openSqliteWriter(jdbcUrl, props, config.getPoolName());
+            config.addDataSourceProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+        } else {
+            this.sqliteWriter = null;
+        }
+
+        this.metrics = new DatabaseMetrics(config.getPoolName(), pool);
+        this.adHocLatency = metrics.statement(DatabaseMetrics.AD_HOC);
+        config.setMetricsTrackerFactory(metrics);
+
+        try {
+            this.dataSource = new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            // The pool label would stay taken and its series exported
+            metrics.unregister();
+            if (sqliteWriter != null) sqliteWriter.close(pool.connectionTimeout);
+            throw e;
+        }
+        this.type = type;
+        this.pool = pool;
+        this.guard = new DatabaseGuard(config.getPoolName(), pool);
+        metrics.register(guard);
+        this.async = new AsyncQueryExecutor(config.getPoolName(), pool.maxPoolSize, guard);
+        this.queryTimeout = pool.queryTimeout;
+        this.replicas = replicaSpecs.isEmpty() ? null
+                : ReplicaRouter.open(replicaSpecs, config.getPoolName(), pool.readYourWritesWindow);
+    }
+
+    static HikariConfig poolConfig(String jdbcUrl, Properties props, DatabaseBuilder.PoolSettings pool, String poolName) {
 
         HikariConfig config = new HikariConfig();
 
@@ -35,22 +110,344 @@ public class JdbcDatabaseImpl implements JdbcDatabase {
         config.setConnectionTimeout(pool.connectionTimeout);
         config.setIdleTimeout(pool.idleTimeout);
         config.setMaxLifetime(pool.maxLifetime);
-        config.setPoolName("HytalibPool");
+        config.setPoolName(poolName);
+        return config;
+    }
+
+    @Override
+    public DatabaseTypes getType() {
+        return type;
+    }
 
-        this.dataSource = new HikariDataSource(config);
+    private static SqliteWriter openSqliteWriter(String jdbcUrl, Properties props, String poolName) {
+        Properties writerProps = new Properties();
+        writerProps.putAll(props);
+        writerProps.putIfAbsent("journal_mode", "WAL");
+        writerProps.putIfAbsent("synchronous", "NORMAL");
+        try {
+            return new SqliteWriter(jdbcUrl, writerProps, poolName);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open SQLite write connection", e);
+        }
     }
 
+    /**
+     * In SQLite performance mode this is an exclusive lease on the single write connection;
+     * close it promptly, on the thread that obtained it. Async writes from that thread fail while it is open.
+     *
+     * @throws DatabaseUnavailableException immediately while the circuit breaker is open,
+     *                                      or if the pool cannot provide a connection
+     */
     @Override
     public Connection getConnection() {
+        return CommitHooks.wrap(guarded(this::connection));
+    }
+
+    /**
+     * Synchronous acquisition through the guard: fails fast while the breaker is open and reports the outcome.
+     */
+    private Connection guarded(Supplier<Connection> source) {
+        guard.checkAvailable();
+        try {
+            Connection connection = source.get();
+            guard.connectionAcquired();
+            return connection;
+        } catch (DatabaseUnavailableException e) {
+            guard.connectionFailed();
+            throw e;
+        }
+    }
+
+    /**
+     * Write connection without the guard; async work is admitted (and accounted) by the executor instead.
+     */
+    private Connection connection() {
+        try {
+            return sqliteWriter != null ? sqliteWriter.lease(pool.connectionTimeout) : dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new DatabaseUnavailableException(DatabaseUnavailableException.Reason.CONNECTION_FAILED,
+                    "Failed to get database connection from HikariCP", e);
+        }
+    }
+
+    /**
+     * Connection for statements that only read: a replica for reads through a {@link #readOnly()} view,
+     * the read-only pool in SQLite performance mode, otherwise the primary.
+     */
+    Connection readConnection(ReplicaRouter.Scope scope) {
+        if (scope != null && replicas != null) {
+            Connection replica = replicas.connection(scope.key());
+            if (replica != null) return replica;
+        }
+        if (sqliteWriter == null) return connection();
         try {
             return dataSource.getConnection();
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to get database connection from HikariCP", e);
+            throw new DatabaseUnavailableException(DatabaseUnavailableException.Reason.CONNECTION_FAILED,
+                    "Failed to get database connection from HikariCP", e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> query(String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return query(null, sql, binder, mapper);
+    }
+
+    <T> CompletableFuture<List<T>> query(ReplicaRouter.Scope scope, String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return async.submit(ctx -> {
+            try (Connection connection = readConnection(scope);
+                 PreparedStatement statement = prepare(ctx, connection, sql, binder)) {
+
+                long start = System.nanoTime();
+                try (ResultSet rs = statement.executeQuery()) {
+                    List<T> rows = new ArrayList<>();
+                    while (rs.next()) rows.add(mapper.map(rs));
+                    return rows;
+                } finally {
+                    metrics.record(adHocLatency, DatabaseMetrics.AD_HOC, sql, null, start);
+                }
+            }
+        }, queryTimeout);
+    }
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> queryFirst(String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return queryFirst(null, sql, binder, mapper);
+    }
+
+    <T> CompletableFuture<Optional<T>> queryFirst(ReplicaRouter.Scope scope, String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return async.submit(ctx -> {
+            try (Connection connection = readConnection(scope);
+                 PreparedStatement statement = prepare(ctx, connection, sql, binder)) {
+
+                statement.setMaxRows(1);
+                long start = System.nanoTime();
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? Optional.ofNullable(mapper.map(rs)) : Optional.<T>empty();
+                } finally {
+                    metrics.record(adHocLatency, DatabaseMetrics.AD_HOC, sql, null, start);
+                }
+            }
+        }, queryTimeout);
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(String sql, StatementBinder binder) {
+        return write((ctx, connection) -> {
+            try (PreparedStatement statement = prepare(ctx, connection, sql, binder)) {
+                long start = System.nanoTime();
+                try {
+                    return statement.executeUpdate();
+                } finally {
+                    metrics.record(adHocLatency, DatabaseMetrics.AD_HOC, sql, null, start);
+                }
+            }
+        });
+    }
+
+    @Override
+    public <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return stream(sql, binder, mapper, DEFAULT_FETCH_SIZE);
+    }
+
+    @Override
+    public <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper, int fetchSize) {
+        return stream(null, sql, binder, mapper, fetchSize);
+    }
+
+    <T> Stream<T> stream(ReplicaRouter.Scope scope, String sql, StatementBinder binder, RowMapper<T> mapper, int fetchSize) {
+        return ResultStream.open(guarded(() -> readConnection(scope)), sql, binder, mapper, fetchSize);
+    }
+
+    @Override
+    public <T> CompletableFuture<Long> forEachChunk(String sql, StatementBinder binder, RowMapper<T> mapper,
+                                                    int chunkSize, ChunkHandler<T> handler) {
+        return forEachChunk(null, sql, binder, mapper, chunkSize, handler);
+    }
+
+    <T> CompletableFuture<Long> forEachChunk(ReplicaRouter.Scope scope, String sql, StatementBinder binder,
+                                             RowMapper<T> mapper, int chunkSize, ChunkHandler<T> handler) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+
+        return async.submit(ctx -> {
+            try (Connection connection = readConnection(scope);
+                 PreparedStatement statement = ResultStream.cursor(connection, sql, Math.min(chunkSize, DEFAULT_FETCH_SIZE))) {
+                ctx.register(statement);
+                binder.bind(statement);
+
+                long total = 0;
+                List<T> chunk = new ArrayList<>(chunkSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        chunk.add(mapper.map(rs));
+                        if (chunk.size() == chunkSize) {
+                            handler.handle(chunk);
+                            total += chunk.size();
+                            chunk.clear();
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    handler.handle(chunk);
+                    total += chunk.size();
+                }
+                return total;
+            }
+        }, 0, false);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(ConnectionFunction<T> work) {
+        return supplyAsync(null, work);
+    }
+
+    <T> CompletableFuture<T> supplyAsync(ReplicaRouter.Scope scope, ConnectionFunction<T> work) {
+        return async.submit(ctx -> {
+            try (Connection connection = scope == null ? connection() : readConnection(scope)) {
+                return work.apply(connection);
+            }
+        }, queryTimeout);
+    }
+
+    @Override
+    public JdbcDatabase readOnly() {
+        return new ReadOnlyDatabase(this, ReplicaRouter.Scope.ANY);
+    }
+
+    @Override
+    public JdbcDatabase readOnly(Object key) {
+        return new ReadOnlyDatabase(this, new ReplicaRouter.Scope(key));
+    }
+
+    @Override
+    public void markWritten(Object key) {
+        if (replicas != null) replicas.markWritten(key);
+    }
+
+    @Override
+    public DatabaseMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public DatabaseGuard guard() {
+        return guard;
+    }
+
+    @Override
+    public <T> SqlTemplate<T> template(String name, String sql, ColumnMapper<T> mapper) {
+        return new SqlTemplate<>(this, name, sql, mapper, null);
+    }
+
+    @Override
+    public SqlTemplate<Void> template(String name, String sql) {
+        return new SqlTemplate<>(this, name, sql, null, null);
+    }
+
+    <T> CompletableFuture<T> submit(AsyncQueryExecutor.Work<T> work) {
+        return async.submit(work, queryTimeout);
+    }
+
+    /**
+     * Runs a write; in SQLite performance mode it is queued for the writer and committed with its group.
+     */
+    <T> CompletableFuture<T> write(AsyncQueryExecutor.ConnectionWork<T> work) {
+        if (sqliteWriter != null) {
+            long start;
+            try {
+                start = guard.acquire();
+            } catch (DatabaseUnavailableException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<T> result = sqliteWriter.submit(work, queryTimeout);
+            result.whenComplete((value, error) -> guard.release(start, error));
+            return result;
         }
+        return async.submit(ctx -> {
+            try (Connection connection = connection()) {
+                return work.run(ctx, connection);
+            }
+        }, queryTimeout);
     }
 
+    private PreparedStatement prepare(AsyncQueryExecutor.Context ctx, Connection connection,
+                                      String sql, StatementBinder binder) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            ctx.register(statement);
+            if (queryTimeout > 0) statement.setQueryTimeout((int) Math.max(1, (queryTimeout + 999) / 1000));
+            binder.bind(statement);
+            return statement;
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Index-bound variant for templates; {@code ctx} is null when the caller owns the connection.
+     */
+    PreparedStatement prepare(AsyncQueryExecutor.Context ctx, Connection connection,
+                              String sql, Object[] params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            if (ctx != null) ctx.register(statement);
+            if (queryTimeout > 0) statement.setQueryTimeout((int) Math.max(1, (queryTimeout + 999) / 1000));
+            for (int i = 0; i < params.length; i++) statement.setObject(i + 1, params[i]);
+            return statement;
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchWriter.Builder batchWriter(String table) {
+        return BatchWriter.builder(this, table);
+    }
+
+    void register(BatchWriter writer) {
+        writers.add(writer);
+    }
+
+    void unregister(BatchWriter writer) {
+        writers.remove(writer);
+    }
+
+    /**
+     * Single daemon thread for background database chores (batch flushes), created on first use.
+     */
+    synchronized ScheduledExecutorService maintenanceExecutor() {
+        if (maintenance == null) {
+            String name = dataSource.getPoolName() + "-maintenance";
+            maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return maintenance;
+    }
+
+    /**
+     * Drains every {@link BatchWriter} and pending async query before closing the pool.
+     */
     @Override
     public void close() {
+        for (BatchWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not drain batch writer", e);
+            }
+        }
+        synchronized (this) {
+            if (maintenance != null) maintenance.shutdown();
+        }
+        async.shutdown(pool.connectionTimeout);
+        if (sqliteWriter != null) sqliteWriter.close(pool.connectionTimeout);
+        if (replicas != null) replicas.close();
         dataSource.close();
+        metrics.unregister();
     }
 }
@@ -0,0 +1,422 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.PluginLogger;
+import dev.team.hytalib.messaging.Player;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * In-memory player data backed by one table, keyed by {@link Player#getName()}.
+ * <ul>
+ *     <li>Data is loaded asynchronously on join; {@link #prefetch} loads many players in one query.
+ *     Prefetched players that never {@link #load} are dropped again once their shard is flushed after the
+ *     builder's {@code prefetchTtl}.</li>
+ *     <li>Each declared field is compared with the value last written, and only changed columns are updated.
+ *     Field values should therefore be immutable (strings, numbers, records) or copied by their getter.</li>
+ *     <li>Players are split into shards that are flushed one per time slice, spreading saves over the interval.</li>
+ *     <li>{@link #unload} saves and forgets a player; {@link #close(long)} saves everyone. Both have a deadline.</li>
+ * </ul>
+ * All writes run on the store's own thread, one after another, so saves of a player never overtake each other.
+ */
+public final class PlayerDataStore<T> {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+    private static final int PREFETCH_CHUNK = 500;
+
+    private final JdbcDatabase database;
+    private final String table;
+    private final String keyColumn;
+    private final List<String> columns;
+    private final List<Function<? super T, ?>> getters;
+    private final RowMapper<T> loader;
+    private final Function<String, T> defaults;
+    private final int shards;
+    private final long prefetchTtlNanos;
+    private final long unloadTimeoutMs;
+
+    private final String selectSql;
+    private final String upsertSql;
+    private final Map<Long, String> updateSql = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<T>> loading = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+    private final ScheduledFuture<?> periodicFlush;
+    private int nextShard;
+
+    private PlayerDataStore(Builder<T> builder) {
+        this.database = builder.database;
+        this.table = SqlDialect.identifier(builder.table);
+        this.keyColumn = SqlDialect.identifier(builder.keyColumn);
+        this.columns = List.copyOf(builder.columns);
+        this.getters = List.copyOf(builder.getters);
+        this.loader = builder.loader;
+        this.defaults = builder.defaults;
+        this.shards = builder.shards;
+        this.prefetchTtlNanos = TimeUnit.MILLISECONDS.toNanos(builder.prefetchTtlMs);
+        this.unloadTimeoutMs = builder.unloadTimeoutMs;
+
+        this.selectSql = "SELECT " + keyColumn + ", " + String.join(", ", columns) + " FROM " + table + " WHERE " + keyColumn;
+        this.upsertSql = SqlDialect.upsert(database.getType(), table, List.of(keyColumn), columns);
+
+        String threadName = "PlayerDataStore-" + table;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sliceMs = Math.max(1, builder.flushIntervalMs / shards);
+        this.periodicFlush = writer.scheduleAtFixedRate(this::flushNextShard, sliceMs, sliceMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static <T> Builder<T> builder(JdbcDatabase database, String table) {
+        return new Builder<>(database, table);
+    }
+
+    /**
+     * Loads the player's data, or returns what is already in memory. Concurrent calls share one query.
+     * Players without a row get the builder's defaults and are inserted on their first flush.
+     */
+    public CompletableFuture<T> load(Player player) {
+        return load(player.getName());
+    }
+
+    public CompletableFuture<T> load(String name) {
+        // Claimed under the map's lock so a concurrent release cannot drop the entry being returned
+        Entry<T> entry = entries.computeIfPresent(name, (n, e) -> e.claim());
+        if (entry != null) return CompletableFuture.completedFuture(entry.value);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<T> running = loading.putIfAbsent(name, result);
+        if (running != null) return running;
+
+        database.queryFirst(selectSql + " = ?", StatementBinder.of(name), loader).whenComplete((row, error) -> {
+            if (error != null) {
+                loading.remove(name, result);
+                result.completeExceptionally(error);
+                return;
+            }
+            // A prefetch may have stored the player in the meantime
+            Entry<T> loaded = entries.compute(name, (n, e) -> e != null ? e.claim() : row.isPresent()
+                    ? new Entry<>(row.get(), values(row.get()))
+                    : new Entry<>(defaults.apply(n), null));
+            loading.remove(name, result);
+            result.complete(loaded.value);
+        });
+        return result;
+    }
+
+    /**
+     * Loads several players ahead of their join in as few queries as possible, e.g. a party being transferred.
+     * Players that are already loaded or loading are skipped. Players that have not called {@link #load}
+     * within {@code prefetchTtl} are forgotten again.
+     */
+    public CompletableFuture<Void> prefetch(Collection<String> names) {
+        List<String> missing = names.stream()
+                .filter(name -> !entries.containsKey(name) && !loading.containsKey(name))
+                .distinct().toList();
+
+        List<CompletableFuture<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += PREFETCH_CHUNK) {
+            List<String> chunk = missing.subList(from, Math.min(missing.size(), from + PREFETCH_CHUNK));
+            String sql = selectSql + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            chunks.add(database.query(sql, StatementBinder.of(chunk.toArray()), rs -> Map.entry(rs.getString(1), loader.map(rs)))
+                    .thenAccept(rows -> {
+                        long now = System.nanoTime();
+                        rows.forEach(row -> entries.computeIfAbsent(row.getKey(),
+                                n -> new Entry<>(row.getValue(), values(row.getValue())).prefetched(now)));
+                    }));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * @return the loaded data, or {@code null} if the player is not loaded
+     */
+    public T get(Player player) {
+        Entry<T> entry = entries.get(player.getName());
+        return entry == null ? null : entry.value;
+    }
+
+    public boolean isLoaded(Player player) {
+        return entries.containsKey(player.getName());
+    }
+
+    /**
+     * Replaces the player's data, e.g. when {@code T} is a record. Changed fields are written on the next flush.
+     */
+    public void set(Player player, T value) {
+        Entry<T> entry = entries.get(player.getName());
+        if (entry == null) throw new IllegalStateException("Player " + player.getName() + " is not loaded");
+        entry.value = value;
+    }
+
+    /**
+     * Saves the player's changes and removes them from memory, unless they rejoined in the meantime.
+     * The future fails with a {@link TimeoutException} after the builder's {@code unloadTimeout}; the player
+     * stays marked for unloading and is saved and dropped by a later periodic flush or {@link #close}.
+     */
+    public CompletableFuture<Void> unload(Player player) {
+        String name = player.getName();
+        Entry<T> entry = entries.get(name);
+        if (entry == null) return CompletableFuture.completedFuture(null);
+
+        entry.unloading = true;
+        return CompletableFuture.runAsync(() -> {
+            flushEntries(Map.of(name, entry));
+            release(name, entry, System.nanoTime());
+        }, writer).orTimeout(unloadTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves every loaded player now.
+     */
+    public CompletableFuture<Void> flushAll() {
+        return CompletableFuture.runAsync(() -> flushEntries(entries), writer);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void flushNextShard() {
+        int shard = nextShard;
+        nextShard = (shard + 1) % shards;
+
+        Map<String, Entry<T>> slice = new HashMap<>();
+        entries.forEach((name, entry) -> {
+            if (Math.floorMod(name.hashCode(), shards) == shard) slice.put(name, entry);
+        });
+        if (slice.isEmpty()) return;
+
+        flushEntries(slice);
+        // Players whose unload flush failed or timed out earlier, and expired prefetches, are dropped once saved
+        long now = System.nanoTime();
+        slice.forEach((name, entry) -> release(name, entry, now));
+    }
+
+    private void release(String name, Entry<T> entry, long now) {
+        if (isReleased(entry, now)) entries.computeIfPresent(name, (n, e) -> e == entry && isReleased(e, now) ? null : e);
+    }
+
+    private boolean isReleased(Entry<T> entry, long now) {
+        return entry.clean && (entry.unloading || entry.prefetched && now - entry.prefetchedAt > prefetchTtlNanos);
+    }
+
+    /**
+     * Writes the changed fields of {@code slice} in one transaction. Runs on the writer thread only.
+     */
+    private void flushEntries(Map<String, Entry<T>> slice) {
+        // Statements keyed by changed-column mask (-1 = full upsert of a new row)
+        Map<Long, List<Object[]>> batches = new HashMap<>();
+        Map<Entry<T>, Object[]> written = new IdentityHashMap<>();
+
+        slice.forEach((name, entry) -> {
+            Object[] current = values(entry.value);
+            long mask = entry.saved == null ? -1 : changedMask(entry.saved, current);
+            if (mask == 0) {
+                entry.clean = true;
+                return;
+            }
+            batches.computeIfAbsent(mask, m -> new ArrayList<>()).add(parameters(name, current, mask));
+            written.put(entry, current);
+        });
+        if (batches.isEmpty()) return;
+
+        try (Connection connection = database.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<Long, List<Object[]>> batch : batches.entrySet()) {
+                    try (PreparedStatement statement = connection.prepareStatement(sql(batch.getKey()))) {
+                        for (Object[] row : batch.getValue()) {
+                            for (int i = 0; i < row.length; i++) statement.setObject(i + 1, row[i]);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+
+            written.forEach((entry, values) -> {
+                entry.saved = values;
+                entry.clean = true;
+            });
+        } catch (SQLException | RuntimeException e) {
+            written.keySet().forEach(entry -> entry.clean = false);
+            LOGGER.warn("Saving " + written.size() + " players to " + table + " failed, will retry: " + e.getMessage());
+        }
+    }
+
+    private Object[] values(T value) {
+        Object[] values = new Object[getters.size()];
+        for (int i = 0; i < values.length; i++) values[i] = getters.get(i).apply(value);
+        return values;
+    }
+
+    private static long changedMask(Object[] saved, Object[] current) {
+        long mask = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (!Objects.equals(saved[i], current[i])) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Upserts take the key followed by every field; updates take the changed fields followed by the key.
+     */
+    private Object[] parameters(String name, Object[] values, long mask) {
+        if (mask == -1) {
+            Object[] row = new Object[values.length + 1];
+            row[0] = name;
+            System.arraycopy(values, 0, row, 1, values.length);
+            return row;
+        }
+        Object[] row = new Object[Long.bitCount(mask) + 1];
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if ((mask & (1L << i)) != 0) row[n++] = values[i];
+        }
+        row[n] = name;
+        return row;
+    }
+
+    private String sql(long mask) {
+        if (mask == -1) return upsertSql;
+        return updateSql.computeIfAbsent(mask, m -> {
+            String assignments = IntStream.range(0, columns.size())
+                    .filter(i -> (m & (1L << i)) != 0)
+                    .mapToObj(i -> columns.get(i) + " = ?")
+                    .collect(Collectors.joining(", "));
+            return "UPDATE " + table + " SET " + assignments + " WHERE " + keyColumn + " = ?";
+        });
+    }
+
+    /**
+     * Stops the periodic flush and saves every loaded player.
+     *
+     * @return {@code false} if saving did not finish (or failed) within the deadline
+     */
+    public boolean close(long timeoutMs) {
+        periodicFlush.cancel(false);
+        try {
+            flushAll().get(timeoutMs, TimeUnit.MILLISECONDS);
+            return entries.values().stream().allMatch(entry -> entry.clean);
+        } catch (TimeoutException e) {
+            LOGGER.warn("PlayerDataStore for " + table + " did not finish saving within " + timeoutMs + " ms");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private static final class Entry<T> {
+        volatile T value;
+        /** Field values as last written; {@code null} until the row exists. Writer thread only. */
+        Object[] saved;
+        volatile boolean clean;
+        volatile boolean unloading;
+        /** Loaded by {@link #prefetch} and not claimed by {@link #load} yet. */
+        volatile boolean prefetched;
+        volatile long prefetchedAt;
+
+        Entry(T value, Object[] saved) {
+            this.value = value;
+            this.saved = saved;
+            this.clean = saved != null;
+        }
+
+        Entry<T> prefetched(long now) {
+            prefetchedAt = now;
+            prefetched = true;
+            return this;
+        }
+
+        Entry<T> claim() {
+            prefetched = false;
+            unloading = false;
+            return this;
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final JdbcDatabase database;
+        private final String table;
+        private String keyColumn = "name";
+        private final List<String> columns = new ArrayList<>();
+        private final List<Function<? super T, ?>> getters = new ArrayList<>();
+        private RowMapper<T> loader;
+        private Function<String, T> defaults;
+        private long flushIntervalMs = 60_000;
+        private int shards = 20;
+        private long prefetchTtlMs = 60_000;
+        private long unloadTimeoutMs = 10_000;
+
+        private Builder(JdbcDatabase database, String table) {
+            this.database = database;
+            this.table = table;
+        }
+
+        /** Column holding the player name; {@code name} by default. */
+        public Builder<T> key(String column) { this.keyColumn = column; return this; }
+
+        /** A persisted field, compared by {@code equals} to detect changes. */
+        public Builder<T> field(String column, Function<? super T, ?> getter) {
+            columns.add(SqlDialect.identifier(column));
+            getters.add(getter);
+            return this;
+        }
+
+        /** Maps a row of {@code SELECT key, fields... FROM table}. */
+        public Builder<T> loader(RowMapper<T> loader) { this.loader = loader; return this; }
+
+        /** Data for players that have no row yet. */
+        public Builder<T> defaults(Function<String, T> defaults) { this.defaults = defaults; return this; }
+
+        /** Every player is saved (if changed) once per interval. */
+        public Builder<T> flushInterval(long ms) { this.flushIntervalMs = ms; return this; }
+
+        /** Number of time slices the interval is split into. */
+        public Builder<T> shards(int shards) { this.shards = shards; return this; }
+
+        /** How long a {@link PlayerDataStore#prefetch prefetched} player is kept without joining. */
+        public Builder<T> prefetchTtl(long ms) { this.prefetchTtlMs = ms; return this; }
+
+        /** How long {@link PlayerDataStore#unload} waits for the player's save. */
+        public Builder<T> unloadTimeout(long ms) { this.unloadTimeoutMs = ms; return this; }
+
+        public PlayerDataStore<T> build() {
+            if (columns.isEmpty() || columns.size() > 63)
+                throw new IllegalStateException("PlayerDataStore requires between 1 and 63 fields.");
+            if (loader == null || defaults == null)
+                throw new IllegalStateException("PlayerDataStore requires a loader and defaults.");
+            if (flushIntervalMs <= 0 || shards <= 0)
+                throw new IllegalStateException("PlayerDataStore flush interval and shards must be positive.");
+            if (prefetchTtlMs <= 0 || unloadTimeoutMs <= 0)
+                throw new IllegalStateException("PlayerDataStore prefetch TTL and unload timeout must be positive.");
+            return new PlayerDataStore<>(this);
+        }
+    }
+}
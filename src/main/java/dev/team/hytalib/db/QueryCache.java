@@ -0,0 +1,300 @@
+package dev.team.hytalib.db;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Keyed read-through cache in front of a query. Concurrent misses on one key share a single load,
+ * entries expire after a TTL and can be refreshed in the background shortly before that,
+ * and the cache is kept under a size or weight bound by evicting the least recently read entries.
+ * Empty results are cached as well, so lookups of missing rows do not hit the database either.
+ * <p>
+ * Each cache has its own bounds; give hot reference data a cache large enough to stay resident
+ * and rarely used rows a small one.
+ */
+public final class QueryCache<K, V> {
+
+    /** Share of the bound that one eviction pass frees, so eviction does not run on every insert. */
+    private static final double EVICTION_HEADROOM = 0.1;
+
+    private final Function<? super K, CompletableFuture<Optional<V>>> loader;
+    private final long maxWeight;
+    private final ToIntFunction<? super V> weigher;
+    private final long ttlNanos;
+    private final long refreshNanos;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<Optional<V>>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong weight = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private QueryCache(Builder<K, V> builder) {
+        this.loader = builder.loader;
+        this.maxWeight = builder.maxWeight;
+        this.weigher = builder.weigher;
+        this.ttlNanos = builder.ttlNanos;
+        this.refreshNanos = builder.refreshNanos;
+    }
+
+    /**
+     * @param loader asynchronous lookup used on a miss, e.g. {@code key -> template.queryFirst(key)}
+     */
+    public static <K, V> Builder<K, V> builder(Function<? super K, CompletableFuture<Optional<V>>> loader) {
+        return new Builder<>(loader);
+    }
+
+    /**
+     * Returns the cached value, or loads it. Concurrent calls for a key that is being loaded
+     * receive the same future.
+     */
+    public CompletableFuture<Optional<V>> get(K key) {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+
+        if (entry != null && !entry.isExpired(now, ttlNanos)) {
+            hits.incrementAndGet();
+            entry.lastAccess = now;
+            if (refreshNanos > 0 && now - entry.loadedAt >= refreshNanos) load(key);
+            return CompletableFuture.completedFuture(entry.value);
+        }
+
+        misses.incrementAndGet();
+        return load(key);
+    }
+
+    /**
+     * @return the cached value without loading; {@code null} if the key is not cached
+     */
+    public Optional<V> getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.isExpired(System.nanoTime(), ttlNanos)) return null;
+        entry.lastAccess = System.nanoTime();
+        return entry.value;
+    }
+
+    /**
+     * Stores a value that is known to be current, e.g. right after writing it.
+     */
+    public void put(K key, V value) {
+        loading.remove(key);
+        store(key, Optional.ofNullable(value));
+    }
+
+    /**
+     * Drops the key; a load that is still running for it will not be cached.
+     */
+    public void invalidate(K key) {
+        loading.remove(key);
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) weight.addAndGet(-removed.weight);
+    }
+
+    public void invalidateAll() {
+        loading.clear();
+        for (K key : List.copyOf(entries.keySet())) invalidate(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private CompletableFuture<Optional<V>> load(K key) {
+        CompletableFuture<Optional<V>> result = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> running = loading.putIfAbsent(key, result);
+        if (running != null) return running;
+
+        long start = System.nanoTime();
+        CompletableFuture<Optional<V>> source;
+        try {
+            source = loader.apply(key);
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+
+        source.whenComplete((value, error) -> {
+            loads.incrementAndGet();
+            loadNanos.addAndGet(System.nanoTime() - start);
+
+            if (error != null) {
+                loadFailures.incrementAndGet();
+                loading.remove(key, result);
+                result.completeExceptionally(error);
+                return;
+            }
+
+            Optional<V> loaded = value == null ? Optional.empty() : value;
+            // Only cache if nobody invalidated or replaced the key while we were loading
+            if (loading.remove(key, result)) store(key, loaded);
+            result.complete(loaded);
+        });
+        return result;
+    }
+
+    private void store(K key, Optional<V> value) {
+        long now = System.nanoTime();
+        Entry<V> entry = new Entry<>(value, weigh(value), now);
+        Entry<V> previous = entries.put(key, entry);
+        if (previous != null) refreshes.incrementAndGet();
+
+        long total = weight.addAndGet(entry.weight - (previous == null ? 0 : previous.weight));
+        if (total > maxWeight) evict();
+    }
+
+    private int weigh(Optional<V> value) {
+        return weigher == null || value.isEmpty() ? 1 : Math.max(1, weigher.applyAsInt(value.get()));
+    }
+
+    /**
+     * Evicts expired entries first, then the least recently read ones, until the cache is
+     * {@link #EVICTION_HEADROOM} below its bound. Only one thread evicts at a time; others carry on.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) return;
+        try {
+            long target = (long) (maxWeight * (1 - EVICTION_HEADROOM));
+            long now = System.nanoTime();
+
+            List<Map.Entry<K, Entry<V>>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().isExpired(now, ttlNanos) ? Long.MIN_VALUE : e.getValue().lastAccess));
+
+            for (Map.Entry<K, Entry<V>> candidate : candidates) {
+                if (weight.get() <= target) break;
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    weight.addAndGet(-candidate.getValue().weight);
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), loads.get(), loadFailures.get(), loadNanos.get(),
+                refreshes.get(), evictions.get(), entries.size(), weight.get());
+    }
+
+    private static final class Entry<V> {
+        final Optional<V> value;
+        final int weight;
+        final long loadedAt;
+        volatile long lastAccess;
+
+        Entry(Optional<V> value, int weight, long loadedAt) {
+            this.value = value;
+            this.weight = weight;
+            this.loadedAt = loadedAt;
+            this.lastAccess = loadedAt;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return ttlNanos > 0 && now - loadedAt >= ttlNanos;
+        }
+    }
+
+    /**
+     * @param hits          lookups answered from the cache
+     * @param misses        lookups that had to wait for a load
+     * @param loads         completed loads, including background refreshes
+     * @param loadFailures  loads that failed (nothing is cached for them)
+     * @param loadNanos     total time spent loading
+     * @param refreshes     loads or puts that replaced an existing entry
+     * @param evictions     entries removed to stay within the bound
+     * @param size          entries currently cached
+     * @param weight        current total weight (equals size when no weigher is set)
+     */
+    public record Stats(long hits, long misses, long loads, long loadFailures, long loadNanos,
+                        long refreshes, long evictions, int size, long weight) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        public double averageLoadMillis() {
+            return loads == 0 ? 0 : loadNanos / 1_000_000.0 / loads;
+        }
+    }
+
+    public static final class Builder<K, V> {
+
+        private final Function<? super K, CompletableFuture<Optional<V>>> loader;
+        private long maxWeight = 10_000;
+        private ToIntFunction<? super V> weigher;
+        private long ttlNanos;
+        private long refreshNanos;
+        private final List<Runnable> registrations = new ArrayList<>();
+        private QueryCache<K, V> cache;
+
+        private Builder(Function<? super K, CompletableFuture<Optional<V>>> loader) {
+            this.loader = loader;
+        }
+
+        public Builder<K, V> maximumSize(long entries) { this.maxWeight = entries; this.weigher = null; return this; }
+
+        /**
+         * Bounds the cache by total weight instead of entry count, e.g. approximate bytes per value.
+         */
+        public Builder<K, V> maximumWeight(long weight, ToIntFunction<? super V> weigher) {
+            this.maxWeight = weight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) { this.ttlNanos = unit.toNanos(duration); return this; }
+
+        /**
+         * Reads of an entry older than this trigger a background reload; the old value is served meanwhile.
+         */
+        public Builder<K, V> refreshAfterWrite(long duration, TimeUnit unit) { this.refreshNanos = unit.toNanos(duration); return this; }
+
+        /**
+         * Invalidates the key a successful update through {@code writer} touched.
+         *
+         * @param key derives the cache key from the update's parameters
+         */
+        public Builder<K, V> invalidatedBy(SqlTemplate<?> writer, Function<Object[], ? extends K> key) {
+            registrations.add(() -> writer.onWrite(params -> cache.invalidate(key.apply(params))));
+            return this;
+        }
+
+        /**
+         * Clears the whole cache after every successful update through {@code writer}.
+         */
+        public Builder<K, V> invalidatedAllBy(SqlTemplate<?> writer) {
+            registrations.add(() -> writer.onWrite(params -> cache.invalidateAll()));
+            return this;
+        }
+
+        public QueryCache<K, V> build() {
+            if (maxWeight <= 0)
+                throw new IllegalStateException("QueryCache bound must be positive.");
+            if (refreshNanos > 0 && ttlNanos > 0 && refreshNanos >= ttlNanos)
+                throw new IllegalStateException("QueryCache refresh interval must be shorter than its TTL.");
+
+            cache = new QueryCache<>(this);
+            registrations.forEach(Runnable::run);
+            return cache;
+        }
+    }
+}
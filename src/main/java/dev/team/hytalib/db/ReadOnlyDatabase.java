@@ -0,0 +1,114 @@
+package dev.team.hytalib.db;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Read-only view of a {@link JdbcDatabaseImpl}: queries, templates and connections come from a replica
+ * when one is configured and healthy. Writes are rejected. Closing the view does nothing.
+ */
+final class ReadOnlyDatabase implements JdbcDatabase {
+
+    private final JdbcDatabaseImpl database;
+    private final ReplicaRouter.Scope scope;
+
+    ReadOnlyDatabase(JdbcDatabaseImpl database, ReplicaRouter.Scope scope) {
+        this.database = database;
+        this.scope = scope;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return database.readConnection(scope);
+    }
+
+    @Override
+    public DatabaseTypes getType() {
+        return database.getType();
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> query(String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return database.query(scope, sql, binder, mapper);
+    }
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> queryFirst(String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return database.queryFirst(scope, sql, binder, mapper);
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(String sql, StatementBinder binder) {
+        throw new UnsupportedOperationException("Cannot update through a read-only view");
+    }
+
+    @Override
+    public <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper) {
+        return database.stream(scope, sql, binder, mapper, JdbcDatabaseImpl.DEFAULT_FETCH_SIZE);
+    }
+
+    @Override
+    public <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper, int fetchSize) {
+        return database.stream(scope, sql, binder, mapper, fetchSize);
+    }
+
+    @Override
+    public <T> CompletableFuture<Long> forEachChunk(String sql, StatementBinder binder, RowMapper<T> mapper,
+                                                    int chunkSize, ChunkHandler<T> handler) {
+        return database.forEachChunk(scope, sql, binder, mapper, chunkSize, handler);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(ConnectionFunction<T> work) {
+        return database.supplyAsync(scope, work);
+    }
+
+    @Override
+    public BatchWriter.Builder batchWriter(String table) {
+        throw new UnsupportedOperationException("Cannot write through a read-only view");
+    }
+
+    @Override
+    public DatabaseMetrics metrics() {
+        return database.metrics();
+    }
+
+    @Override
+    public DatabaseGuard guard() {
+        return database.guard();
+    }
+
+    @Override
+    public <T> SqlTemplate<T> template(String name, String sql, ColumnMapper<T> mapper) {
+        return new SqlTemplate<>(database, name, sql, mapper, scope);
+    }
+
+    @Override
+    public SqlTemplate<Void> template(String name, String sql) {
+        throw new UnsupportedOperationException("Cannot register a write template on a read-only view");
+    }
+
+    @Override
+    public JdbcDatabase readOnly() {
+        return database.readOnly();
+    }
+
+    @Override
+    public JdbcDatabase readOnly(Object key) {
+        return database.readOnly(key);
+    }
+
+    @Override
+    public void markWritten(Object key) {
+        database.markWritten(key);
+    }
+
+    @Override
+    public void close() {
+    }
+}
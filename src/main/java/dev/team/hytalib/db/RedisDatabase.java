@@ -0,0 +1,76 @@
+package dev.team.hytalib.db;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Key-value store backed by a pooled Redis client. Like {@link JdbcDatabase}, every call runs on a
+ * virtual thread and never blocks the caller. Multi-key methods cost one round trip regardless of
+ * the number of keys. There is no JDBC connection: {@link #getConnection()} throws.
+ */
+public interface RedisDatabase extends Database {
+
+    CompletableFuture<Optional<String>> get(String key);
+
+    CompletableFuture<Void> set(String key, String value);
+
+    CompletableFuture<Void> set(String key, String value, Duration ttl);
+
+    /**
+     * Reads all keys in one {@code MGET}; missing keys are absent from the result.
+     */
+    CompletableFuture<Map<String, String>> getAll(Collection<String> keys);
+
+    /**
+     * Writes all entries in one {@code MSET}.
+     */
+    CompletableFuture<Void> setAll(Map<String, String> values);
+
+    /**
+     * Writes all entries with an expiry, pipelined into one round trip.
+     */
+    CompletableFuture<Void> setAll(Map<String, String> values, Duration ttl);
+
+    /**
+     * @return the number of keys removed
+     */
+    CompletableFuture<Long> delete(String... keys);
+
+    CompletableFuture<Map<String, String>> getHash(String key);
+
+    CompletableFuture<Void> setHash(String key, Map<String, String> fields);
+
+    /**
+     * Reads several hashes, pipelined; keys that do not exist map to an empty hash.
+     */
+    CompletableFuture<Map<String, Map<String, String>>> getHashes(Collection<String> keys);
+
+    /**
+     * Writes fields into several hashes, pipelined into one round trip.
+     */
+    CompletableFuture<Void> setHashes(Map<String, Map<String, String>> hashes);
+
+    /**
+     * @return the value after adding {@code delta}
+     */
+    CompletableFuture<Long> increment(String key, long delta);
+
+    /**
+     * Atomically adds {@code delta} and sets {@code ttl} if the counter has no expiry yet,
+     * e.g. for windowed rate limits.
+     */
+    CompletableFuture<Long> increment(String key, long delta, Duration ttl);
+
+    /**
+     * Atomically adds {@code delta} only if the result stays within {@code [min, max]}.
+     *
+     * @return the new value, or empty if the counter was left unchanged
+     */
+    CompletableFuture<OptionalLong> incrementWithin(String key, long delta, long min, long max);
+}
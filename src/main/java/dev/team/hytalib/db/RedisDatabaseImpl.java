@@ -0,0 +1,254 @@
+package dev.team.hytalib.db;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.params.SetParams;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+public class RedisDatabaseImpl implements RedisDatabase {
+
+    private static final int DEFAULT_SOCKET_TIMEOUT = 2000;
+
+    /** KEYS[1] counter, ARGV[1] delta, ARGV[2] ttl in ms. */
+    private static final String INCREMENT_WITH_TTL =
+            "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) "
+            + "if redis.call('PTTL', KEYS[1]) < 0 then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+            + "return value";
+
+    /**
+     * KEYS[1] counter, ARGV[1] delta, ARGV[2] min, ARGV[3] max; returns false if out of range.
+     * INCRBY keeps the key's TTL and its integer encoding on any Redis version; an out-of-range
+     * result is rolled back, deleting the key again if the increment created it.
+     */
+    private static final String INCREMENT_WITHIN =
+            "local existed = redis.call('EXISTS', KEYS[1]) "
+            + "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) "
+            + "if value < tonumber(ARGV[2]) or value > tonumber(ARGV[3]) then "
+            + "if existed == 0 then redis.call('DEL', KEYS[1]) else redis.call('DECRBY', KEYS[1], ARGV[1]) end "
+            + "return false end "
+            + "return value";
+
+    private final JedisPool jedisPool;
+    private final DatabaseBuilder.PoolSettings pool;
+    private final AsyncQueryExecutor async;
+    private final long queryTimeout;
+    private final Map<String, String> scriptShas = new ConcurrentHashMap<>();
+
+    public RedisDatabaseImpl(String host, int port, String user, String password, int database,
+                             DatabaseBuilder.PoolSettings pool) {
+
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(pool.maxPoolSize);
+        config.setMaxIdle(pool.maxPoolSize);
+        config.setMinIdle(pool.minIdle);
+        config.setMaxWait(Duration.ofMillis(pool.connectionTimeout));
+        config.setMinEvictableIdleDuration(Duration.ofMillis(pool.idleTimeout));
+        config.setBlockWhenExhausted(true);
+        config.setJmxEnabled(false);
+
+        int socketTimeout = pool.queryTimeout > 0 ? (int) pool.queryTimeout : DEFAULT_SOCKET_TIMEOUT;
+
+        this.jedisPool = new JedisPool(config, host, port, socketTimeout, user, password, database);
+        this.pool = pool;
+        String name = pool.poolName != null ? pool.poolName : DatabaseBuilder.defaultPoolName(DatabaseTypes.REDIS);
+        this.async = new AsyncQueryExecutor(name, pool.maxPoolSize, null);
+        this.queryTimeout = pool.queryTimeout;
+    }
+
+    /**
+     * Redis is not a JDBC database.
+     */
+    @Override
+    public Connection getConnection() {
+        throw new UnsupportedOperationException("Redis has no JDBC connection; use the RedisDatabase methods");
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> get(String key) {
+        return run(jedis -> Optional.ofNullable(jedis.get(key)));
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String key, String value) {
+        return run(jedis -> {
+            jedis.set(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String key, String value, Duration ttl) {
+        return run(jedis -> {
+            jedis.set(key, value, SetParams.setParams().px(ttl.toMillis()));
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> getAll(Collection<String> keys) {
+        if (keys.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+
+        String[] array = keys.toArray(String[]::new);
+        return run(jedis -> {
+            List<String> values = jedis.mget(array);
+            Map<String, String> result = new HashMap<>(array.length * 2);
+            for (int i = 0; i < array.length; i++) {
+                if (values.get(i) != null) result.put(array[i], values.get(i));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(Map<String, String> values) {
+        if (values.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        String[] keysValues = new String[values.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            keysValues[i++] = entry.getKey();
+            keysValues[i++] = entry.getValue();
+        }
+        return run(jedis -> {
+            jedis.mset(keysValues);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setAll(Map<String, String> values, Duration ttl) {
+        if (values.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        SetParams params = SetParams.setParams().px(ttl.toMillis());
+        return pipelined(pipeline -> {
+            values.forEach((key, value) -> pipeline.set(key, value, params));
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> delete(String... keys) {
+        if (keys.length == 0) return CompletableFuture.completedFuture(0L);
+        return run(jedis -> jedis.del(keys));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> getHash(String key) {
+        return run(jedis -> jedis.hgetAll(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> setHash(String key, Map<String, String> fields) {
+        if (fields.isEmpty()) return CompletableFuture.completedFuture(null);
+        return run(jedis -> {
+            jedis.hset(key, fields);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Map<String, String>>> getHashes(Collection<String> keys) {
+        if (keys.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+
+        return pipelined(pipeline -> {
+            Map<String, Response<Map<String, String>>> responses = new LinkedHashMap<>();
+            for (String key : keys) responses.put(key, pipeline.hgetAll(key));
+            return responses;
+        }).thenApply(responses -> {
+            Map<String, Map<String, String>> result = new LinkedHashMap<>(responses.size() * 2);
+            responses.forEach((key, response) -> result.put(key, response.get()));
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setHashes(Map<String, Map<String, String>> hashes) {
+        if (hashes.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        return pipelined(pipeline -> {
+            hashes.forEach((key, fields) -> {
+                if (!fields.isEmpty()) pipeline.hset(key, fields);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String key, long delta) {
+        return run(jedis -> jedis.incrBy(key, delta));
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String key, long delta, Duration ttl) {
+        return run(jedis -> (Long) script(jedis, INCREMENT_WITH_TTL, key, delta, ttl.toMillis()));
+    }
+
+    @Override
+    public CompletableFuture<OptionalLong> incrementWithin(String key, long delta, long min, long max) {
+        return run(jedis -> {
+            Object value = script(jedis, INCREMENT_WITHIN, key, delta, min, max);
+            return value == null ? OptionalLong.empty() : OptionalLong.of((Long) value);
+        });
+    }
+
+    /**
+     * Runs a script by SHA, loading it on first use and again if the server was flushed or restarted.
+     */
+    private Object script(Jedis jedis, String script, String key, long... args) {
+        List<String> keys = List.of(key);
+        List<String> argv = new ArrayList<>(args.length);
+        for (long arg : args) argv.add(Long.toString(arg));
+
+        String sha = scriptShas.computeIfAbsent(script, jedis::scriptLoad);
+        try {
+            return jedis.evalsha(sha, keys, argv);
+        } catch (JedisNoScriptException e) {
+            scriptShas.put(script, jedis.scriptLoad(script));
+            return jedis.eval(script, keys, argv);
+        }
+    }
+
+    private <T> CompletableFuture<T> run(Function<Jedis, T> work) {
+        return async.submit(ctx -> {
+            try (Jedis jedis = jedisPool.getResource()) {
+                return work.apply(jedis);
+            }
+        }, queryTimeout);
+    }
+
+    /**
+     * Queues commands on a pipeline and sends them in one round trip. The callback's
+     * {@link Response}s can be read once the returned future completes.
+     */
+    private <T> CompletableFuture<T> pipelined(Function<Pipeline, T> commands) {
+        return run(jedis -> {
+            try (Pipeline pipeline = jedis.pipelined()) {
+                T result = commands.apply(pipeline);
+                pipeline.sync();
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Waits for running commands, then closes the pool.
+     */
+    @Override
+    public void close() {
+        async.shutdown(pool.connectionTimeout);
+        jedisPool.close();
+    }
+}
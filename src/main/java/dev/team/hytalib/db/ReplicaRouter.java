@@ -0,0 +1,147 @@
+package dev.team.hytalib.db;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import dev.team.hytalib.core.PluginLogger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Read replicas of a primary database. Each read goes to the healthy replica with the fewest
+ * outstanding requests (borrowed connections plus threads waiting for one). A replica that fails to
+ * hand out a connection is skipped for a few seconds, and reads fall back to the primary while no
+ * replica is available, or while a key is inside its read-your-writes window. Replica pools wait at most
+ * {@value #CONNECTION_TIMEOUT_MS} ms for a connection, so a dead or saturated replica costs a read that
+ * long rather than the primary's connection timeout.
+ */
+final class ReplicaRouter {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int PURGE_THRESHOLD = 10_000;
+    /** HikariCP's lowest accepted connection timeout. */
+    static final long CONNECTION_TIMEOUT_MS = 250;
+
+    private final List<Replica> replicas;
+    private final long stickyNanos;
+    private final Map<Object, Long> recentWrites = new ConcurrentHashMap<>();
+
+    private ReplicaRouter(List<Replica> replicas, long stickyMs) {
+        this.replicas = replicas;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+    }
+
+    static ReplicaRouter open(List<Spec> specs, String primaryName, long stickyMs) {
+        List<Replica> replicas = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            Spec spec = specs.get(i);
+            String name = spec.pool().poolName != null ? spec.pool().poolName : primaryName + "-replica-" + (i + 1);
+
+            HikariConfig config = JdbcDatabaseImpl.poolConfig(spec.jdbcUrl(), spec.props(), spec.pool(), name);
+            config.setReadOnly(true);
+            // The primary is always there to fall back to; don't make reads wait out a dead replica
+            config.setConnectionTimeout(Math.min(config.getConnectionTimeout(), CONNECTION_TIMEOUT_MS));
+            config.setValidationTimeout(Math.min(config.getValidationTimeout(), CONNECTION_TIMEOUT_MS));
+            // A replica that is down at startup must not prevent the primary from starting
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(name, new HikariDataSource(config)));
+        }
+        return new ReplicaRouter(replicas, stickyMs);
+    }
+
+    /**
+     * @param key routing key of the read, or {@code null}
+     * @return a replica connection, or {@code null} if the read should go to the primary
+     */
+    Connection connection(Object key) {
+        long now = System.nanoTime();
+        if (key != null && isSticky(key, now)) return null;
+
+        Replica best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (Replica replica : replicas) {
+            if (replica.down && now - replica.retryAt < 0) continue;
+            int load = replica.outstanding();
+            if (load < bestLoad) {
+                best = replica;
+                bestLoad = load;
+            }
+        }
+        if (best == null) return null;
+
+        try {
+            Connection connection = best.dataSource.getConnection();
+            best.down = false;
+            return connection;
+        } catch (SQLException e) {
+            // HikariCP attaches the last connection failure; without one the pool was merely busy
+            if (e.getCause() != null) {
+                best.retryAt = now + RETRY_NANOS;
+                best.down = true;
+                LOGGER.warn("Replica " + best.name + " is unavailable, reading from the primary: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    void markWritten(Object key) {
+        if (stickyNanos <= 0) return;
+
+        long now = System.nanoTime();
+        recentWrites.put(key, now + stickyNanos);
+        if (recentWrites.size() > PURGE_THRESHOLD) recentWrites.values().removeIf(until -> now - until >= 0);
+    }
+
+    private boolean isSticky(Object key, long now) {
+        Long until = recentWrites.get(key);
+        if (until == null) return false;
+        if (now - until < 0) return true;
+        recentWrites.remove(key, until);
+        return false;
+    }
+
+    void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * Connection settings of one replica.
+     */
+    record Spec(String jdbcUrl, Properties props, DatabaseBuilder.PoolSettings pool) {
+    }
+
+    /**
+     * Marks reads issued through a read-only view; {@code key} may be null.
+     */
+    record Scope(Object key) {
+        static final Scope ANY = new Scope(null);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean down;
+        private volatile long retryAt;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        int outstanding() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+    }
+}
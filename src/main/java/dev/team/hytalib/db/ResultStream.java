@@ -0,0 +1,95 @@
+package dev.team.hytalib.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Lazily maps rows of an open cursor. The statement and connection are released as soon as the last
+ * row has been read, or when the stream is closed, whichever comes first.
+ */
+final class ResultStream<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private boolean closed;
+
+    private ResultStream(Connection connection, PreparedStatement statement, ResultSet rs, RowMapper<T> mapper) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.connection = connection;
+        this.statement = statement;
+        this.rs = rs;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Opens a forward-only, read-only cursor that fetches {@code fetchSize} rows per round trip.
+     * Takes ownership of {@code connection}.
+     */
+    static <T> Stream<T> open(Connection connection, String sql, StatementBinder binder,
+                              RowMapper<T> mapper, int fetchSize) {
+        PreparedStatement statement = null;
+        try {
+            statement = cursor(connection, sql, fetchSize);
+            binder.bind(statement);
+            ResultStream<T> cursor = new ResultStream<>(connection, statement, statement.executeQuery(), mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(statement, connection);
+            throw new RuntimeException("Failed to open streaming query: " + sql, e);
+        }
+    }
+
+    static PreparedStatement cursor(Connection connection, String sql, int fetchSize) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            statement.setFetchSize(fetchSize);
+            return statement;
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) return false;
+        try {
+            if (!rs.next()) {
+                close();
+                return false;
+            }
+            action.accept(mapper.map(rs));
+            return true;
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Failed to read streaming query", e);
+        }
+    }
+
+    void close() {
+        if (closed) return;
+        closed = true;
+        closeQuietly(rs, statement, connection);
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) continue;
+            try {
+                resource.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
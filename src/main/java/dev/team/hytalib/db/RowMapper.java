@@ -0,0 +1,12 @@
+package dev.team.hytalib.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet row) throws SQLException;
+}
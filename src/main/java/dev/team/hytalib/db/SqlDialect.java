@@ -0,0 +1,58 @@
+package dev.team.hytalib.db;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Dialect-specific SQL generation.
+ */
+final class SqlDialect {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private SqlDialect() {}
+
+    static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid SQL identifier: " + name);
+        return name;
+    }
+
+    /**
+     * Insert-or-update of one row; parameters are the key columns followed by the value columns.
+     */
+    static String upsert(DatabaseTypes type, String table, List<String> keys, List<String> values) {
+        identifier(table);
+        keys.forEach(SqlDialect::identifier);
+        values.forEach(SqlDialect::identifier);
+
+        String columns = String.join(", ", keys) + (values.isEmpty() ? "" : ", " + String.join(", ", values));
+        String params = String.join(", ", Collections.nCopies(keys.size() + values.size(), "?"));
+
+        return switch (type) {
+            case MYSQL -> values.isEmpty()
+                    ? "INSERT IGNORE INTO " + table + " (" + columns + ") VALUES (" + params + ")"
+                    : "INSERT INTO " + table + " (" + columns + ") VALUES (" + params + ") ON DUPLICATE KEY UPDATE "
+                      + values.stream().map(c -> c + " = VALUES(" + c + ")").collect(Collectors.joining(", "));
+            case SQLITE -> "INSERT INTO " + table + " (" + columns + ") VALUES (" + params + ") ON CONFLICT ("
+                    + String.join(", ", keys) + ") "
+                    + (values.isEmpty() ? "DO NOTHING"
+                    : "DO UPDATE SET " + values.stream().map(c -> c + " = excluded." + c).collect(Collectors.joining(", ")));
+            case H2 -> "MERGE INTO " + table + " (" + columns + ") KEY (" + String.join(", ", keys) + ") VALUES (" + params + ")";
+            case REDIS -> throw new UnsupportedOperationException("Redis has no SQL dialect");
+            case GENERIC -> throw new UnsupportedOperationException(
+                    "No upsert syntax is known for this database; use MySQL, SQLite or H2");
+        };
+    }
+
+    static DatabaseTypes fromUrl(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:mysql:")) return DatabaseTypes.MYSQL;
+        if (jdbcUrl.startsWith("jdbc:sqlite:")) return DatabaseTypes.SQLITE;
+        if (jdbcUrl.startsWith("jdbc:h2:")) return DatabaseTypes.H2;
+        return DatabaseTypes.GENERIC;
+    }
+}
@@ -0,0 +1,76 @@
+package dev.team.hytalib.db;
+
+import java.sql.*;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Sorts SQL errors by SQLState class: whether the database (or the connection to it) failed, or the
+ * statement or its data is wrong and would fail the same way on every retry.
+ */
+final class SqlErrors {
+
+    /** Guards against cause chains that loop back on themselves. */
+    private static final int MAX_DEPTH = 16;
+
+    private SqlErrors() {}
+
+    /**
+     * @return {@code true} if the connection failed or the database refused work (SQLState class 08,
+     * recoverable / transient-connection exceptions, Hytalib's own {@link DatabaseUnavailableException})
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        int depth = 0;
+        for (Throwable t = error; t != null && depth++ < MAX_DEPTH; t = next(t)) {
+            if (t instanceof DatabaseUnavailableException
+                    || t instanceof SQLRecoverableException
+                    || t instanceof SQLTransientConnectionException
+                    || "08".equals(stateClass(t))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} for connection failures and for errors that may succeed when retried
+     * (timeouts, deadlocks and serialization failures, SQLState class 40)
+     */
+    static boolean isTransient(Throwable error) {
+        if (isConnectionFailure(error)) return true;
+        int depth = 0;
+        for (Throwable t = error; t != null && depth++ < MAX_DEPTH; t = next(t)) {
+            if (t instanceof SQLTransientException || t instanceof java.util.concurrent.TimeoutException
+                    || "40".equals(stateClass(t))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} if the statement or its values are at fault: data exceptions (22), constraint
+     * violations (23), syntax or access errors (42) and cardinality violations (21)
+     */
+    static boolean isPermanent(Throwable error) {
+        int depth = 0;
+        for (Throwable t = error; t != null && depth++ < MAX_DEPTH; t = next(t)) {
+            if (t instanceof SQLDataException || t instanceof SQLIntegrityConstraintViolationException
+                    || t instanceof SQLSyntaxErrorException) return true;
+            String state = stateClass(t);
+            if ("21".equals(state) || "22".equals(state) || "23".equals(state) || "42".equals(state)) return true;
+        }
+        return false;
+    }
+
+    private static String stateClass(Throwable t) {
+        if (!(t instanceof SQLException sql)) return null;
+        String state = sql.getSQLState();
+        return state != null && state.length() >= 2 ? state.substring(0, 2) : null;
+    }
+
+    /**
+     * Follows {@link SQLException#getNextException()} (where batch drivers put the real error) before the cause.
+     */
+    private static Throwable next(Throwable t) {
+        if (t instanceof SQLException sql && sql.getNextException() != null && sql.getNextException() != t)
+            return sql.getNextException();
+        return t.getCause() == t ? null : t.getCause();
+    }
+}
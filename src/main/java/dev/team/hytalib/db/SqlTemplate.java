@@ -0,0 +1,197 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.PluginLogger;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A statement registered once and executed many times. Parameters are bound by index,
+ * and result columns are resolved to indices on first execution only.
+ * Together with the driver-side statement cache that {@link DatabaseBuilder} enables for MySQL,
+ * repeated executions skip both SQL parsing and column lookups.
+ */
+public final class SqlTemplate<T> {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private final JdbcDatabaseImpl database;
+    private final String name;
+    private final String sql;
+    private final ColumnMapper<T> columnMapper;
+    private volatile RowMapper<T> mapper;
+    private final LatencyHistogram latency;
+    private final ReplicaRouter.Scope scope;
+    private final List<Consumer<Object[]>> writeListeners = new CopyOnWriteArrayList<>();
+
+    SqlTemplate(JdbcDatabaseImpl database, String name, String sql, ColumnMapper<T> columnMapper, ReplicaRouter.Scope scope) {
+        this.database = database;
+        this.name = name;
+        this.sql = sql;
+        this.columnMapper = columnMapper;
+        this.latency = database.metrics().statement(name);
+        this.scope = scope;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public CompletableFuture<List<T>> query(Object... params) {
+        return database.submit(ctx -> {
+            try (Connection connection = database.readConnection(scope)) {
+                return execute(ctx, connection, params, Integer.MAX_VALUE);
+            }
+        });
+    }
+
+    public CompletableFuture<Optional<T>> queryFirst(Object... params) {
+        return database.submit(ctx -> {
+            try (Connection connection = database.readConnection(scope)) {
+                List<T> rows = execute(ctx, connection, params, 1);
+                return rows.isEmpty() ? Optional.<T>empty() : Optional.ofNullable(rows.get(0));
+            }
+        });
+    }
+
+    /**
+     * @return the number of affected rows; completes once the write is committed
+     */
+    public CompletableFuture<Integer> update(Object... params) {
+        CompletableFuture<Integer> write = database.write((ctx, connection) -> executeUpdate(ctx, connection, params));
+        // The future completes after the commit (autocommit, or the SQLite writer's group), so a cache
+        // reloading on invalidation cannot read the row as it was before this update
+        CompletableFuture<Integer> result = write.whenComplete((updated, error) -> {
+            if (error == null) notifyWrite(params);
+        });
+        result.whenComplete((updated, error) -> {
+            if (result.isCancelled()) write.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Starts a {@link QueryCache} that loads through this template.
+     *
+     * @param params maps a cache key to this template's parameters
+     */
+    public <K> QueryCache.Builder<K, T> cache(Function<? super K, Object[]> params) {
+        return QueryCache.builder(key -> queryFirst(params.apply(key)));
+    }
+
+    /**
+     * Runs the query synchronously on a connection the caller owns, e.g. inside a transaction.
+     */
+    public List<T> queryIn(Connection connection, Object... params) throws SQLException {
+        return execute(null, connection, params, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs the update synchronously on a connection the caller owns. Caches invalidated by this template are
+     * invalidated once the caller's transaction commits, provided the connection came from
+     * {@link JdbcDatabase#getConnection()}; on other connections they are invalidated right away.
+     */
+    public int updateIn(Connection connection, Object... params) throws SQLException {
+        int updated = executeUpdate(null, connection, params);
+        if (writeListeners.isEmpty()) return updated;
+        if (connection.getAutoCommit() || !CommitHooks.afterCommit(connection, () -> notifyWrite(params))) {
+            notifyWrite(params);
+        }
+        return updated;
+    }
+
+    private List<T> execute(AsyncQueryExecutor.Context ctx, Connection connection, Object[] params, int maxRows) throws SQLException {
+        if (columnMapper == null)
+            throw new IllegalStateException("Template '" + name + "' has no row mapper; use update()");
+
+        try (PreparedStatement statement = database.prepare(ctx, connection, sql, params)) {
+            if (maxRows != Integer.MAX_VALUE) statement.setMaxRows(maxRows);
+
+            long start = System.nanoTime();
+            try (ResultSet rs = statement.executeQuery()) {
+                RowMapper<T> rowMapper = mapper(rs);
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) rows.add(rowMapper.map(rs));
+                return rows;
+            } finally {
+                database.metrics().record(latency, name, sql, params, start);
+            }
+        }
+    }
+
+    private int executeUpdate(AsyncQueryExecutor.Context ctx, Connection connection, Object[] params) throws SQLException {
+        try (PreparedStatement statement = database.prepare(ctx, connection, sql, params)) {
+            long start = System.nanoTime();
+            int updated;
+            try {
+                updated = statement.executeUpdate();
+            } finally {
+                database.metrics().record(latency, name, sql, params, start);
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Called with the parameters of every committed update, used for cache invalidation.
+     */
+    void onWrite(Consumer<Object[]> listener) {
+        writeListeners.add(listener);
+    }
+
+    private void notifyWrite(Object[] params) {
+        for (Consumer<Object[]> listener : writeListeners) {
+            try {
+                listener.accept(params);
+            } catch (RuntimeException e) {
+                // The write itself succeeded; one broken listener must not fail it or starve the others
+                LOGGER.error("Write listener of template '" + name + "' failed", e);
+            }
+        }
+    }
+
+    private RowMapper<T> mapper(ResultSet rs) throws SQLException {
+        RowMapper<T> resolved = mapper;
+        if (resolved == null) {
+            resolved = columnMapper.resolve(new MetaDataColumns(rs.getMetaData()));
+            mapper = resolved;
+        }
+        return resolved;
+    }
+
+    private static final class MetaDataColumns implements ColumnMapper.Columns {
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final int count;
+
+        private MetaDataColumns(ResultSetMetaData meta) throws SQLException {
+            this.count = meta.getColumnCount();
+            for (int i = count; i >= 1; i--) {
+                indices.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        @Override
+        public int index(String label) throws SQLException {
+            Integer index = indices.get(label.toLowerCase(Locale.ROOT));
+            if (index == null) throw new SQLException("Column '" + label + "' not found in result set");
+            return index;
+        }
+
+        @Override
+        public int count() {
+            return count;
+        }
+    }
+}
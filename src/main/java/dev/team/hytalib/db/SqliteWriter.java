@@ -0,0 +1,276 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.PluginLogger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * The single write connection of a SQLite database in performance mode. Queued writes are drained
+ * by one thread and committed together, so a burst of updates costs one WAL sync instead of one each.
+ * Every write runs under its own savepoint: a failing statement is rolled back alone and does not
+ * take the rest of its group with it.
+ * <p>
+ * Code that needs the connection directly (DDL, custom transactions, {@link BatchWriter}) leases it
+ * exclusively through {@link #lease(long)}. Writes submitted while holding a lease would wait for it
+ * forever, so they fail right away instead.
+ */
+final class SqliteWriter {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private static final int MAX_GROUP_SIZE = 512;
+
+    private final Connection connection;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final Task<Void> stop = new Task<>(null);
+    private final Thread thread;
+    private volatile boolean closed;
+
+    SqliteWriter(String jdbcUrl, Properties props, String name) throws SQLException {
+        this.connection = DriverManager.getConnection(jdbcUrl, props);
+        this.thread = new Thread(this::run, name + "-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a write for the next group. Cancelling or timing out the returned future cancels the running
+     * statement, and a write whose future is already done is rolled back instead of committed.
+     */
+    <T> CompletableFuture<T> submit(AsyncQueryExecutor.ConnectionWork<T> work, long timeoutMs) {
+        Task<T> task = new Task<>(work);
+        if (closed) {
+            task.result.completeExceptionally(new IllegalStateException("Database is closed"));
+            return task.result;
+        }
+        if (lock.isHeldByCurrentThread()) {
+            // The writer thread needs the lease to run this, and the caller would wait on it while holding it
+            task.result.completeExceptionally(new IllegalStateException(
+                    "Write submitted while this thread leases the SQLite write connection; run it on the leased connection"));
+            return task.result;
+        }
+
+        task.result.whenComplete((v, t) -> {
+            if (task.result.isCancelled() || t instanceof TimeoutException) task.cancel();
+        });
+        if (timeoutMs > 0) task.result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        queue.add(task);
+        return task.result;
+    }
+
+    private void run() {
+        List<Task<?>> group = new ArrayList<>(MAX_GROUP_SIZE);
+        while (true) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(group, MAX_GROUP_SIZE - 1);
+
+            int stopAt = group.indexOf(stop);
+            runGroup(stopAt < 0 ? group : group.subList(0, stopAt));
+            group.clear();
+            if (stopAt >= 0) return;
+        }
+    }
+
+    private void runGroup(List<Task<?>> group) {
+        if (group.isEmpty()) return;
+
+        lock.lock();
+        try {
+            connection.setAutoCommit(false);
+            List<Task<?>> applied = new ArrayList<>(group.size());
+
+            for (Task<?> task : group) {
+                if (task.result.isDone()) continue;
+
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    task.run(connection);
+                    if (task.result.isDone()) {
+                        // Timed out or cancelled while running: the caller has been told it failed
+                        connection.rollback(savepoint);
+                        continue;
+                    }
+                    connection.releaseSavepoint(savepoint);
+                    applied.add(task);
+                } catch (Throwable t) {
+                    try {
+                        connection.rollback(savepoint);
+                    } catch (SQLException e) {
+                        t.addSuppressed(e);
+                    }
+                    task.result.completeExceptionally(t);
+                }
+            }
+
+            try {
+                connection.commit();
+                applied.forEach(Task::complete);
+            } catch (SQLException e) {
+                connection.rollback();
+                applied.forEach(task -> task.result.completeExceptionally(e));
+            }
+        } catch (SQLException e) {
+            group.forEach(task -> task.result.completeExceptionally(e));
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Borrows the write connection until the returned handle is closed. Queued writes wait meanwhile,
+     * so keep leases short, and close them on the thread that opened them.
+     */
+    Connection lease(long timeoutMs) throws SQLException {
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS))
+                throw new SQLTimeoutException("Timed out waiting for the SQLite write connection");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the SQLite write connection", e);
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lease());
+    }
+
+    /**
+     * Writes everything queued so far, then closes the connection.
+     */
+    void close(long awaitMs) {
+        closed = true;
+        queue.add(stop);
+        try {
+            thread.join(awaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Writes that raced with close() and landed behind the stop marker
+        for (Task<?> late; (late = queue.poll()) != null; ) {
+            if (late != stop) late.result.completeExceptionally(new IllegalStateException("Database is closed"));
+        }
+
+        lock.lock();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.error("Could not close the SQLite writer connection", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Task<T> implements AsyncQueryExecutor.Context {
+
+        private final AsyncQueryExecutor.ConnectionWork<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+
+        private Task(AsyncQueryExecutor.ConnectionWork<T> work) {
+            this.work = work;
+        }
+
+        void run(Connection connection) throws Exception {
+            try {
+                value = work.run(this, connection);
+            } finally {
+                statement = null;
+            }
+        }
+
+        void complete() {
+            result.complete(value);
+        }
+
+        @Override
+        public void register(Statement statement) throws SQLException {
+            this.statement = statement;
+            if (cancelled) throw new SQLException("Query cancelled");
+        }
+
+        void cancel() {
+            cancelled = true;
+
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+
+        private boolean released;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    release();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "SqliteWriter lease of " + connection;
+                }
+            }
+
+            if (released) throw new SQLException("Connection is closed");
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() throws SQLException {
+            if (released) return;
+            released = true;
+            try {
+                // Like a pool would: don't leak an open transaction into the next lease
+                if (lock.getHoldCount() == 1 && !connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
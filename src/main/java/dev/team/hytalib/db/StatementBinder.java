@@ -0,0 +1,24 @@
+package dev.team.hytalib.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * HytaLab Studio code @ 2025
+ */
+@FunctionalInterface
+public interface StatementBinder {
+
+    StatementBinder NONE = statement -> {};
+
+    void bind(PreparedStatement statement) throws SQLException;
+
+    /**
+     * Binds {@code params} to parameters 1..n in order.
+     */
+    static StatementBinder of(Object... params) {
+        return statement -> {
+            for (int i = 0; i < params.length; i++) statement.setObject(i + 1, params[i]);
+        };
+    }
+}
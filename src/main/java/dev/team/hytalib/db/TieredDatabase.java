@@ -0,0 +1,143 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.PluginLogger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A durable database (MySQL or SQLite) fronted by an in-memory H2 hot tier. Reads and writes of
+ * {@link TieredTable}s hit the hot tier on the calling thread; changes are copied to the durable tier
+ * in batches in the background, and rows nobody touched for a while are dropped from memory once copied.
+ * <p>
+ * Tables must exist in both tiers, see {@link #createTable(String)}. Queries through {@link #hot()} only
+ * see rows that are currently in memory.
+ */
+public final class TieredDatabase implements Database {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+
+    private final JdbcDatabaseImpl durable;
+    private final JdbcDatabaseImpl hot;
+    private final List<TieredTable> tables = new CopyOnWriteArrayList<>();
+
+    TieredDatabase(JdbcDatabaseImpl durable, DatabaseBuilder.PoolSettings pool) {
+        DatabaseBuilder.PoolSettings hotPool = new DatabaseBuilder.PoolSettings();
+        hotPool.maxPoolSize = pool.maxPoolSize;
+        hotPool.minIdle = pool.minIdle;
+        hotPool.poolName = DatabaseBuilder.defaultPoolName(DatabaseTypes.H2) + "-hot";
+        // In-process: there is nothing to shed load from
+        hotPool.circuitBreaker = false;
+        hotPool.adaptiveConcurrency = false;
+
+        // DB_CLOSE_DELAY keeps the database alive while the pool has no open connections
+        String url = "jdbc:h2:mem:" + hotPool.poolName + ";DB_CLOSE_DELAY=-1"
+                + (durable.getType() == DatabaseTypes.MYSQL ? ";MODE=MySQL" : "");
+
+        this.durable = durable;
+        this.hot = new JdbcDatabaseImpl(DatabaseTypes.H2, url, new Properties(), hotPool);
+    }
+
+    /**
+     * The in-memory tier, for queries over the rows currently held and for hot-only scratch tables.
+     */
+    public JdbcDatabase hot() {
+        return hot;
+    }
+
+    public JdbcDatabase durable() {
+        return durable;
+    }
+
+    /**
+     * A connection to the hot tier.
+     */
+    @Override
+    public Connection getConnection() {
+        return hot.getConnection();
+    }
+
+    /**
+     * Runs {@code ddl} on both tiers; {@code IF NOT EXISTS} is advisable. With a MySQL durable tier the
+     * hot tier runs in H2's MySQL compatibility mode, so the same statement usually works for both.
+     */
+    public void createTable(String ddl) {
+        for (JdbcDatabaseImpl tier : List.of(durable, hot)) {
+            try (Connection connection = tier.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(ddl);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to create table on the " + (tier == hot ? "hot" : "durable") + " tier", e);
+            }
+        }
+    }
+
+    /**
+     * Starts building a tiered view of {@code table}.
+     */
+    public TieredTable.Builder table(String table) {
+        return TieredTable.builder(this, table);
+    }
+
+    JdbcDatabaseImpl hotTier() {
+        return hot;
+    }
+
+    JdbcDatabaseImpl durableTier() {
+        return durable;
+    }
+
+    void register(TieredTable table) {
+        tables.add(table);
+    }
+
+    void unregister(TieredTable table) {
+        tables.remove(table);
+    }
+
+    /**
+     * Copies every pending change of every table to the durable tier and waits for the commit,
+     * e.g. at the end of a match. Blocks: call it off the server thread.
+     */
+    public void checkpoint() throws SQLException {
+        SQLException failure = null;
+        for (TieredTable table : tables) {
+            try {
+                table.replicate();
+            } catch (SQLException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Replicates what is pending, then closes both tiers. The hot tier's contents are discarded.
+     */
+    @Override
+    public void close() {
+        for (TieredTable table : tables) {
+            try {
+                table.close();
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not close tiered table", e);
+            }
+        }
+
+        try (Connection connection = hot.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("Failed to shut down hot tier: " + e.getMessage());
+        }
+        hot.close();
+        durable.close();
+    }
+}
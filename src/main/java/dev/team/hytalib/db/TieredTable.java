@@ -0,0 +1,430 @@
+package dev.team.hytalib.db;
+
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.PluginLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * One table of a {@link TieredDatabase}. Writes and reads run against the in-memory hot tier on the
+ * calling thread; changed keys are queued and copied to the durable tier in batches, in one transaction
+ * per pass. Only the latest change of a key is copied.
+ * <p>
+ * Rows are passed as key column values followed by value column values, in the order they were declared,
+ * and row mappers see the columns in that order too.
+ * <p>
+ * Rows that were not accessed within {@code evictAfterAccess}, or the least recently used ones beyond
+ * {@code maxHotRows}, are dropped from the hot tier once their last change is durable.
+ * {@link #load} brings them back.
+ */
+public final class TieredTable implements AutoCloseable {
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+    private static final Object[] DELETED = new Object[0];
+    private static final int STRIPES = 64;
+    private static final String DUPLICATE_KEY = "23505";
+
+    private final TieredDatabase database;
+    private final JdbcDatabaseImpl hot;
+    private final JdbcDatabaseImpl durable;
+    private final String table;
+    private final int keyCount;
+    private final int columnCount;
+    private final int maxBatchSize;
+    private final long evictAfterNanos;
+    private final int maxHotRows;
+
+    private final String selectSql;
+    private final String hotUpsertSql;
+    private final String hotInsertSql;
+    private final String durableUpsertSql;
+    private final String deleteSql;
+    private final LatencyHistogram latency;
+
+    /** Changes not yet durable; {@link #DELETED} marks a delete. */
+    private final Map<List<Object>, Object[]> pending = new ConcurrentHashMap<>();
+    /** Keys known to be in the hot tier, with their last access time. */
+    private final Map<List<Object>, Long> lastAccess = new ConcurrentHashMap<>();
+    /** Keeps the hot tier and the pending change of a key in the same order. */
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    private final ScheduledFuture<?> periodicReplication;
+    private final AtomicBoolean replicationRequested = new AtomicBoolean();
+    private final Object replicationLock = new Object();
+    private volatile boolean closed;
+
+    private final AtomicLong replicated = new AtomicLong();
+    private final AtomicLong failedReplications = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong loadedFromDurable = new AtomicLong();
+
+    private TieredTable(Builder builder) {
+        this.database = builder.database;
+        this.hot = database.hotTier();
+        this.durable = database.durableTier();
+        this.table = SqlDialect.identifier(builder.table);
+        this.keyCount = builder.keys.size();
+        this.columnCount = builder.keys.size() + builder.columns.size();
+        this.maxBatchSize = builder.maxBatchSize;
+        this.evictAfterNanos = TimeUnit.MILLISECONDS.toNanos(builder.evictAfterAccessMs);
+        this.maxHotRows = builder.maxHotRows;
+
+        List<String> all = new ArrayList<>(builder.keys);
+        all.addAll(builder.columns);
+        String where = builder.keys.stream().map(k -> k + " = ?").collect(Collectors.joining(" AND "));
+        this.selectSql = "SELECT " + String.join(", ", all) + " FROM " + table + " WHERE " + where;
+        this.deleteSql = "DELETE FROM " + table + " WHERE " + where;
+        this.hotUpsertSql = SqlDialect.upsert(DatabaseTypes.H2, table, builder.keys, builder.columns);
+        this.hotInsertSql = "INSERT INTO " + table + " (" + String.join(", ", all) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(all.size(), "?")) + ")";
+        this.durableUpsertSql = SqlDialect.upsert(durable.getType(), table, builder.keys, builder.columns);
+        this.latency = durable.metrics().statement("tiered:" + table);
+
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+
+        this.periodicReplication = durable.maintenanceExecutor().scheduleWithFixedDelay(this::maintain,
+                builder.replicationIntervalMs, builder.replicationIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    static Builder builder(TieredDatabase database, String table) {
+        return new Builder(database, table);
+    }
+
+    /**
+     * Inserts or replaces a row in the hot tier and queues it for the durable tier.
+     */
+    public void write(Object... row) {
+        if (row.length != columnCount)
+            throw new IllegalArgumentException("Expected " + columnCount + " values for " + table + " but got " + row.length);
+        if (closed) throw new IllegalStateException("TieredTable " + table + " is closed");
+
+        List<Object> key = key(row);
+        Object[] values = row.clone();
+
+        ReentrantLock stripe = stripe(key);
+        stripe.lock();
+        try {
+            executeHot(hotUpsertSql, values);
+            pending.put(key, values);
+            lastAccess.put(key, System.nanoTime());
+        } finally {
+            stripe.unlock();
+        }
+        requestReplicationIfFull();
+    }
+
+    /**
+     * Deletes a row from the hot tier and queues the delete for the durable tier.
+     */
+    public void delete(Object... key) {
+        if (key.length != keyCount)
+            throw new IllegalArgumentException("Expected " + keyCount + " key values for " + table + " but got " + key.length);
+        if (closed) throw new IllegalStateException("TieredTable " + table + " is closed");
+
+        List<Object> k = Arrays.asList(key.clone());
+        ReentrantLock stripe = stripe(k);
+        stripe.lock();
+        try {
+            executeHot(deleteSql, key);
+            pending.put(k, DELETED);
+            lastAccess.remove(k);
+        } finally {
+            stripe.unlock();
+        }
+        requestReplicationIfFull();
+    }
+
+    /**
+     * Reads a row from the hot tier only; evicted rows are not found, see {@link #load}.
+     */
+    public <T> Optional<T> get(RowMapper<T> mapper, Object... key) {
+        List<Object> k = Arrays.asList(key.clone());
+        try (Connection connection = hot.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectSql)) {
+            bind(statement, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) return Optional.empty();
+                lastAccess.computeIfPresent(k, (ignored, old) -> System.nanoTime());
+                return Optional.ofNullable(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read " + table + " from the hot tier", e);
+        }
+    }
+
+    /**
+     * Like {@link #get}, but a row that is not in memory is read from the durable tier and kept hot.
+     */
+    public <T> CompletableFuture<Optional<T>> load(RowMapper<T> mapper, Object... key) {
+        Optional<T> cached = get(mapper, key);
+        List<Object> k = Arrays.asList(key.clone());
+        if (cached.isPresent() || pending.get(k) == DELETED) return CompletableFuture.completedFuture(cached);
+
+        return durable.queryFirst(selectSql, StatementBinder.of(key), this::readRow).thenApply(row -> {
+            if (row.isEmpty()) return Optional.empty();
+            admit(k, row.get());
+            return get(mapper, key);
+        });
+    }
+
+    /**
+     * Adds a row read from the durable tier, unless the hot tier changed it in the meantime.
+     */
+    private void admit(List<Object> key, Object[] row) {
+        ReentrantLock stripe = stripe(key);
+        stripe.lock();
+        try {
+            if (pending.containsKey(key)) return;
+            executeHot(hotInsertSql, row);
+            lastAccess.put(key, System.nanoTime());
+            loadedFromDurable.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Written concurrently and already replicated: the hot row is newer
+            if (!(e.getCause() instanceof SQLException sql && DUPLICATE_KEY.equals(sql.getSQLState()))) throw e;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private Object[] readRow(ResultSet rs) throws SQLException {
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) row[i] = rs.getObject(i + 1);
+        return row;
+    }
+
+    private void executeHot(String sql, Object[] params) {
+        try (Connection connection = hot.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, params);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to write " + table + " to the hot tier", e);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) statement.setObject(i + 1, params[i]);
+    }
+
+    private List<Object> key(Object[] row) {
+        return Arrays.asList(Arrays.copyOf(row, keyCount));
+    }
+
+    private ReentrantLock stripe(List<Object> key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private void requestReplicationIfFull() {
+        if (pending.size() >= maxBatchSize && replicationRequested.compareAndSet(false, true)) {
+            durable.maintenanceExecutor().execute(this::maintain);
+        }
+    }
+
+    /**
+     * Copies the pending changes to the durable tier in one transaction. Changes made meanwhile stay
+     * pending; on failure everything stays pending and is retried on the next pass.
+     */
+    public void replicate() throws SQLException {
+        synchronized (replicationLock) {
+            replicationRequested.set(false);
+            if (pending.isEmpty()) return;
+
+            List<Map.Entry<List<Object>, Object[]>> changes = new ArrayList<>(pending.size());
+            pending.forEach((key, row) -> changes.add(Map.entry(key, row)));
+
+            try {
+                writeDurable(changes);
+            } catch (SQLException | RuntimeException e) {
+                failedReplications.incrementAndGet();
+                throw e;
+            }
+
+            // A newer change of the same key is a different array and stays pending
+            for (Map.Entry<List<Object>, Object[]> change : changes) pending.remove(change.getKey(), change.getValue());
+            replicated.addAndGet(changes.size());
+        }
+    }
+
+    private void writeDurable(List<Map.Entry<List<Object>, Object[]>> changes) throws SQLException {
+        try (Connection connection = durable.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement upsert = connection.prepareStatement(durableUpsertSql);
+                 PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                int upserts = 0, deletes = 0;
+                for (Map.Entry<List<Object>, Object[]> change : changes) {
+                    if (change.getValue() == DELETED) {
+                        bind(delete, change.getKey().toArray());
+                        delete.addBatch();
+                        if (++deletes == maxBatchSize) {
+                            executeBatch(delete, deleteSql);
+                            deletes = 0;
+                        }
+                    } else {
+                        bind(upsert, change.getValue());
+                        upsert.addBatch();
+                        if (++upserts == maxBatchSize) {
+                            executeBatch(upsert, durableUpsertSql);
+                            upserts = 0;
+                        }
+                    }
+                }
+                if (upserts > 0) executeBatch(upsert, durableUpsertSql);
+                if (deletes > 0) executeBatch(delete, deleteSql);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void executeBatch(PreparedStatement statement, String sql) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            statement.executeBatch();
+        } finally {
+            durable.metrics().record(latency, "tiered:" + table, sql, null, start);
+        }
+    }
+
+    /**
+     * Drops durable rows that went cold: first those idle past {@code evictAfterAccess},
+     * then the least recently used ones while more than {@code maxHotRows} are held.
+     */
+    void evict() {
+        if (evictAfterNanos <= 0 && lastAccess.size() <= maxHotRows) return;
+
+        long now = System.nanoTime();
+        List<Map.Entry<List<Object>, Long>> candidates = new ArrayList<>();
+        lastAccess.forEach((key, accessed) -> candidates.add(Map.entry(key, accessed)));
+
+        int excess = candidates.size() - maxHotRows;
+        if (excess > 0) candidates.sort(Map.Entry.comparingByValue());
+
+        for (Map.Entry<List<Object>, Long> candidate : candidates) {
+            boolean idle = evictAfterNanos > 0 && now - candidate.getValue() >= evictAfterNanos;
+            if (!idle && excess <= 0) continue;
+            if (evictOne(candidate.getKey(), candidate.getValue())) excess--;
+        }
+    }
+
+    private boolean evictOne(List<Object> key, long seenAccess) {
+        ReentrantLock stripe = stripe(key);
+        stripe.lock();
+        try {
+            // Touched or changed since the scan, or not durable yet
+            if (pending.containsKey(key) || !Objects.equals(lastAccess.get(key), seenAccess)) return false;
+            executeHot(deleteSql, key.toArray());
+            lastAccess.remove(key);
+            evicted.incrementAndGet();
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void maintain() {
+        try {
+            replicate();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("Replication of " + table + " failed, will retry: " + e.getMessage());
+        }
+        try {
+            evict();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Eviction from " + table + " failed: " + e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(lastAccess.size(), pending.size(), replicated.get(), failedReplications.get(),
+                evicted.get(), loadedFromDurable.get());
+    }
+
+    /**
+     * Stops replicating on a schedule and copies what is still pending.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        periodicReplication.cancel(false);
+
+        try {
+            replicate();
+        } catch (SQLException | RuntimeException e) {
+            throw new RuntimeException("Failed to replicate " + table
+                    + " (" + pending.size() + " changes not written)", e);
+        } finally {
+            database.unregister(this);
+        }
+    }
+
+    /**
+     * @param hotRows            rows held in memory (written or loaded through this table)
+     * @param pending            changes not yet durable
+     * @param replicated         changes copied to the durable tier
+     * @param failedReplications replication passes that were rolled back
+     * @param evicted            rows dropped from memory
+     * @param loadedFromDurable  rows brought back by {@link #load}
+     */
+    public record Stats(int hotRows, int pending, long replicated, long failedReplications,
+                        long evicted, long loadedFromDurable) {
+    }
+
+    public static final class Builder {
+
+        private final TieredDatabase database;
+        private final String table;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> columns = new ArrayList<>();
+        private long replicationIntervalMs = 1000;
+        private int maxBatchSize = 500;
+        private long evictAfterAccessMs = 0;
+        private int maxHotRows = Integer.MAX_VALUE;
+
+        private Builder(TieredDatabase database, String table) {
+            this.database = database;
+            this.table = table;
+        }
+
+        public Builder key(String... keyColumns) { keys.addAll(List.of(keyColumns)); return this; }
+        public Builder columns(String... valueColumns) { columns.addAll(List.of(valueColumns)); return this; }
+        public Builder replicationInterval(long ms) { this.replicationIntervalMs = ms; return this; }
+        /** Pending changes that trigger an early replication pass; also the JDBC batch size. */
+        public Builder maxBatchSize(int rows) { this.maxBatchSize = rows; return this; }
+        /** Drop durable rows not read or written for this long; 0 keeps them. */
+        public Builder evictAfterAccess(long ms) { this.evictAfterAccessMs = ms; return this; }
+        /** Drop the least recently used durable rows beyond this count. */
+        public Builder maxHotRows(int rows) { this.maxHotRows = rows; return this; }
+
+        public TieredTable build() {
+            if (keys.isEmpty())
+                throw new IllegalStateException("TieredTable requires at least one key column.");
+            if (replicationIntervalMs <= 0 || maxBatchSize <= 0 || maxHotRows <= 0 || evictAfterAccessMs < 0)
+                throw new IllegalStateException("TieredTable limits must be positive.");
+
+            TieredTable tieredTable = new TieredTable(this);
+            database.register(tieredTable);
+            return tieredTable;
+        }
+    }
+}
@@ -22,7 +22,7 @@ public class ExamplePlugin extends PluginBase {
     @Override
     protected void onEnable() {
         instance = this;
-        config = new Configuration(Paths.get("plugins/ExamplePlugin/config.yml"));
+        config = createConfig(Paths.get("plugins/ExamplePlugin/config.yml"));
 
         if (config.getBoolean("data.sql-enabled")) {
             database = DatabaseBuilder.create()
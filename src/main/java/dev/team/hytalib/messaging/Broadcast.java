@@ -0,0 +1,170 @@
+package dev.team.hytalib.messaging;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A message formatted once and delivered to many players in parallel. Recipients are split into
+ * chunks that run on the broadcast executor; audience filters are checked per player while the
+ * chunk is delivered. A broadcast can be sent any number of times.
+ * <pre>{@code
+ * Broadcast announcement = MessageUtils.broadcast("&6Event starts in 5 minutes")
+ *         .permission("events.notify")
+ *         .world("lobby");
+ * announcement.send(players).thenAccept(result -> ...);
+ * }</pre>
+ */
+public final class Broadcast {
+
+    private final String text;
+    private Executor executor;
+    private int chunkSize = 256;
+    private String permission;
+    private String world;
+    private Predicate<? super Player> filter;
+
+    Broadcast(String text, Executor executor) {
+        this.text = text;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the final text, prefix and colour codes included
+     */
+    public String text() {
+        return text;
+    }
+
+    public Broadcast executor(Executor executor) { this.executor = Objects.requireNonNull(executor); return this; }
+
+    /** Players delivered to by one task. */
+    public Broadcast chunkSize(int players) {
+        if (players <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        this.chunkSize = players;
+        return this;
+    }
+
+    /**
+     * Only players for which {@link Player#hasPermission} is true. Players whose implementation does not
+     * support permissions throw and are counted as {@link Result#failed() failed}.
+     */
+    public Broadcast permission(String permission) { this.permission = permission; return this; }
+
+    /**
+     * Only players in {@code world}, see {@link Player#getWorld()}; unsupported players count as failed as well.
+     */
+    public Broadcast world(String world) { this.world = world; return this; }
+
+    /**
+     * Adds a condition; a player must pass every condition to receive the message.
+     */
+    public Broadcast filter(Predicate<? super Player> condition) {
+        Predicate<? super Player> previous = filter;
+        this.filter = previous == null ? condition : player -> previous.test(player) && condition.test(player);
+        return this;
+    }
+
+    /**
+     * Delivers the message to every player in {@code players} that matches the audience. The collection
+     * is copied once on the calling thread, so it may change while the broadcast runs.
+     * <p>
+     * A player whose {@code sendMessage} throws is counted as failed and does not stop the others.
+     * The future fails only if the executor rejects a chunk.
+     */
+    public CompletableFuture<Result> send(Collection<? extends Player> players) {
+        long start = System.nanoTime();
+        Player[] recipients = players.toArray(new Player[0]);
+        if (recipients.length == 0) return CompletableFuture.completedFuture(new Result(0, 0, 0, null));
+
+        int chunks = (recipients.length + chunkSize - 1) / chunkSize;
+        Dispatch dispatch = new Dispatch(recipients, audience(), chunks);
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = chunk * chunkSize;
+            int to = Math.min(recipients.length, from + chunkSize);
+            try {
+                executor.execute(() -> dispatch.deliver(from, to));
+            } catch (RejectedExecutionException e) {
+                dispatch.result.completeExceptionally(e);
+                break;
+            }
+        }
+        dispatch.result.thenAccept(result -> MessageUtils.recordBroadcast(result, System.nanoTime() - start));
+        return dispatch.result;
+    }
+
+    /**
+     * @return one predicate for all conditions, or {@code null} for everyone
+     */
+    private Predicate<Player> audience() {
+        String permission = this.permission;
+        String world = this.world;
+        Predicate<? super Player> filter = this.filter;
+        if (permission == null && world == null && filter == null) return null;
+
+        return player -> (permission == null || player.hasPermission(permission))
+                && (world == null || world.equals(player.getWorld()))
+                && (filter == null || filter.test(player));
+    }
+
+    private final class Dispatch {
+
+        private final Player[] recipients;
+        private final Predicate<Player> audience;
+        private final AtomicInteger remaining;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+        private Dispatch(Player[] recipients, Predicate<Player> audience, int chunks) {
+            this.recipients = recipients;
+            this.audience = audience;
+            this.remaining = new AtomicInteger(chunks);
+        }
+
+        private void deliver(int from, int to) {
+            int sent = 0, filtered = 0, errors = 0;
+            for (int i = from; i < to; i++) {
+                Player player = recipients[i];
+                try {
+                    if (audience != null && !audience.test(player)) {
+                        filtered++;
+                        continue;
+                    }
+                    player.sendMessage(text);
+                    sent++;
+                } catch (RuntimeException e) {
+                    errors++;
+                    firstError.compareAndSet(null, e);
+                }
+            }
+            delivered.add(sent);
+            skipped.add(filtered);
+            failed.add(errors);
+
+            if (remaining.decrementAndGet() == 0) {
+                result.complete(new Result((int) delivered.sum(), (int) skipped.sum(), (int) failed.sum(), firstError.get()));
+            }
+        }
+    }
+
+    /**
+     * @param delivered  players the message was sent to
+     * @param skipped    players outside the audience
+     * @param failed     players whose {@code sendMessage}, filter, permission or world check threw
+     * @param firstError the first of those exceptions, or {@code null}
+     */
+    public record Result(int delivered, int skipped, int failed, Throwable firstError) {
+    }
+}
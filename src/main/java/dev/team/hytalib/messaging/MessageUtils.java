@@ -1,29 +1,138 @@
 package dev.team.hytalib.messaging;
 
+import dev.team.hytalib.core.Counter;
+import dev.team.hytalib.core.LatencyHistogram;
+import dev.team.hytalib.core.Metrics;
+import dev.team.hytalib.core.MetricsRegistry;
+import dev.team.hytalib.utils.MessageTemplate;
+
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * HytaLab Studio code @ 2025
+ * <p>
+ * Sends, render time and broadcasts are counted in the {@linkplain MetricsRegistry#library() library metrics}.
  */
 public final class MessageUtils {
 
+    private static final Metrics METRICS = MetricsRegistry.get().library();
+    private static final Counter SENT_DIRECT = METRICS.counter("messages_sent_total", "path", "direct");
+    private static final Counter SENT_QUEUED = METRICS.counter("messages_sent_total", "path", "queued");
+    private static final LatencyHistogram RENDER_NANOS = METRICS.histogram("message_render_nanos");
+    private static final LatencyHistogram BROADCAST_NANOS = METRICS.histogram("broadcast_nanos");
+    private static final Counter BROADCAST_DELIVERED = METRICS.counter("broadcast_recipients_total", "outcome", "delivered");
+    private static final Counter BROADCAST_SKIPPED = METRICS.counter("broadcast_recipients_total", "outcome", "skipped");
+    private static final Counter BROADCAST_FAILED = METRICS.counter("broadcast_recipients_total", "outcome", "failed");
+
     private static String prefix = "[Hytalib] ";
+    private static volatile Executor broadcastExecutor = ForkJoinPool.commonPool();
+    private static volatile OutboundMessages outbound;
 
     private MessageUtils() {}
 
     public static void setPrefix(String p) { prefix = p == null ? "" : p; }
 
+    /**
+     * Executor that delivers {@link Broadcast} chunks unless a broadcast sets its own.
+     */
+    public static void setBroadcastExecutor(Executor executor) { broadcastExecutor = executor; }
+
+    /**
+     * Routes {@link #send} and {@link #sendTemplate} through {@code queue} (rate limits, coalescing);
+     * {@code null} sends directly.
+     * The server must then call {@link OutboundMessages#tick()} every tick.
+     */
+    public static synchronized void setOutbound(OutboundMessages queue) {
+        outbound = queue;
+        METRICS.unregister("queue", "outbound");
+        if (queue == null) return;
+
+        // Read only when exported
+        METRICS.gauge("outbound_depth", () -> queue.stats().depth(), "queue", "outbound");
+        METRICS.counter("outbound_dropped_total", () -> queue.stats().dropped(), "queue", "outbound");
+        METRICS.counter("outbound_coalesced_total", () -> queue.stats().coalesced(), "queue", "outbound");
+    }
+
+    /**
+     * Replaces every {@code &} with {@code §}; everything else, {@code %} included, is kept as written.
+     */
     public static String format(String message) {
         if (message == null) return "";
         return message.replace("&", "§");
     }
 
+    /**
+     * Sends {@code message} as written, colour codes aside, so text that came from players or other
+     * untrusted sources cannot inject placeholders. Use {@link #sendTemplate} for placeholders.
+     */
     public static void send(Player player, String message) {
-        player.sendMessage(prefix + format(message));
+        send(player, message, OutboundMessages.Priority.NORMAL);
+    }
+
+    /**
+     * Without an outbound queue the priority is ignored and the message is sent immediately.
+     */
+    public static void send(Player player, String message, OutboundMessages.Priority priority) {
+        deliver(player, prefix + format(message), priority);
+    }
+
+    /**
+     * Renders {@code template} for {@code player} (see {@link MessageTemplate}) and sends it.
+     * Only pass text you control: placeholders in it are resolved and {@code %%} becomes {@code %}.
+     */
+    public static void sendTemplate(Player player, String template) {
+        sendTemplate(player, template, null, OutboundMessages.Priority.NORMAL);
     }
 
+    /**
+     * @param values values by placeholder name, checked before the registered resolvers; may be {@code null}
+     */
+    public static void sendTemplate(Player player, String template, Map<String, ?> values) {
+        sendTemplate(player, template, values, OutboundMessages.Priority.NORMAL);
+    }
+
+    public static void sendTemplate(Player player, String template, Map<String, ?> values,
+                                    OutboundMessages.Priority priority) {
+        long start = System.nanoTime();
+        String text = prefix + MessageTemplate.compile(template).render(player, values);
+        RENDER_NANOS.record(System.nanoTime() - start);
+        deliver(player, text, priority);
+    }
+
+    private static void deliver(Player player, String text, OutboundMessages.Priority priority) {
+        OutboundMessages queue = outbound;
+        if (queue != null) {
+            // A full lane drops the message; that is counted by outbound_dropped_total instead
+            if (queue.enqueue(player, text, priority)) SENT_QUEUED.increment();
+        } else {
+            player.sendMessage(text);
+            SENT_DIRECT.increment();
+        }
+    }
+
+    /**
+     * Sends on the calling thread; for large audiences see {@link #broadcast(String)}.
+     */
     public static void broadcast(Collection<Player> players, String message) {
         String fm = prefix + format(message);
         for (Player p : players) p.sendMessage(fm);
+        SENT_DIRECT.add(players.size());
+    }
+
+    /**
+     * Formats {@code message} once for a parallel, filterable broadcast.
+     */
+    public static Broadcast broadcast(String message) {
+        return new Broadcast(prefix + format(message), broadcastExecutor);
+    }
+
+    static void recordBroadcast(Broadcast.Result result, long nanos) {
+        BROADCAST_NANOS.record(nanos);
+        BROADCAST_DELIVERED.add(result.delivered());
+        BROADCAST_SKIPPED.add(result.skipped());
+        BROADCAST_FAILED.add(result.failed());
     }
 }
@@ -0,0 +1,320 @@
+package dev.team.hytalib.messaging;
+
+import dev.team.hytalib.core.PluginLogger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Buffers outgoing messages per player and delivers them when the server calls {@link #tick()},
+ * once per tick. Any thread may {@link #enqueue} without taking a lock; only the ticking thread sends.
+ * <ul>
+ *     <li>Each player has one bounded lane per {@link Priority}. A full lane drops the new message.</li>
+ *     <li>{@link Priority#SYSTEM} messages are delivered first and are not rate limited.
+ *     The other lanes share a token bucket per player.</li>
+ *     <li>A message identical to the one queued just before it in the same lane is folded into it and
+ *     delivered once as {@code "text (xN)"}.</li>
+ * </ul>
+ * Call {@link #remove} when a player leaves. Queues that stayed empty for a minute, with the rate limit fully
+ * recovered, are dropped on {@link #tick()} as well, so a message racing the removal does not keep a queue alive.
+ */
+public final class OutboundMessages {
+
+    public enum Priority { SYSTEM, NORMAL, LOW }
+
+    private static final PluginLogger LOGGER = new PluginLogger("Hytalib");
+    private static final Priority[] LANES = Priority.values();
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // Far enough below zero that producers leaving a retired queue never bring it back up
+    private static final int RETIRED = Integer.MIN_VALUE / 2;
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final double burst;
+    private final Map<String, PlayerQueue> queues = new ConcurrentHashMap<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    private OutboundMessages(Builder builder) {
+        this.capacity = builder.capacity;
+        this.tokensPerNano = builder.messagesPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+        this.burst = builder.burst;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean enqueue(Player player, String message) {
+        return enqueue(player, message, Priority.NORMAL);
+    }
+
+    /**
+     * @return {@code false} if the lane was full and the message was dropped
+     */
+    public boolean enqueue(Player player, String message, Priority priority) {
+        String name = player.getName();
+        PlayerQueue queue = queues.get(name);
+        while (queue == null || !queue.enter()) {
+            // First message, or the queue was retired by remove() or the idle sweep
+            queue = queues.compute(name, (n, q) -> q == null || q.isRetired() ? new PlayerQueue() : q);
+        }
+        try {
+            queue.player = player;
+            queue.lastOffer = System.nanoTime();
+            return queue.lanes[priority.ordinal()].offer(message);
+        } finally {
+            queue.exit();
+        }
+    }
+
+    /**
+     * Delivers what each player's rate allows. Call once per tick, always from the same thread.
+     */
+    public void tick() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, PlayerQueue> entry : queues.entrySet()) {
+            PlayerQueue queue = entry.getValue();
+            try {
+                queue.drain(now);
+            } catch (RuntimeException e) {
+                // One broken connection must not hold up everyone else's messages
+                LOGGER.error("Failed to deliver queued messages to " + entry.getKey(), e);
+            }
+            // A fresh queue would start with the same full bucket, so dropping an idle one loses nothing
+            if (queue.isIdle(now)) queues.computeIfPresent(entry.getKey(), (name, q) -> q == queue && q.retireIfIdle(now) ? null : q);
+        }
+    }
+
+    /**
+     * Forgets a player's queue; undelivered messages are discarded.
+     */
+    public void remove(Player player) {
+        PlayerQueue queue = queues.remove(player.getName());
+        if (queue != null) queue.writers.set(RETIRED);
+    }
+
+    /**
+     * @return messages waiting for {@code player}, all lanes
+     */
+    public int depth(Player player) {
+        PlayerQueue queue = queues.get(player.getName());
+        return queue == null ? 0 : queue.depth();
+    }
+
+    public Stats stats() {
+        int depth = 0, deepest = 0;
+        for (PlayerQueue queue : queues.values()) {
+            int d = queue.depth();
+            depth += d;
+            deepest = Math.max(deepest, d);
+        }
+        return new Stats(queues.size(), depth, deepest, enqueued.sum(), sent.sum(), coalesced.sum(),
+                dropped.sum(), deferred.sum());
+    }
+
+    /**
+     * @param players   players with a queue
+     * @param depth     messages waiting, all players
+     * @param deepest   longest single queue
+     * @param enqueued  messages accepted, coalesced ones included
+     * @param sent      {@code sendMessage} calls
+     * @param coalesced messages folded into the one before them
+     * @param dropped   messages refused because a lane was full
+     * @param deferred  ticks on which a player still had rate-limited messages waiting
+     */
+    public record Stats(int players, int depth, int deepest, long enqueued, long sent, long coalesced,
+                       long dropped, long deferred) {
+    }
+
+    private final class PlayerQueue {
+
+        private final Lane[] lanes = new Lane[LANES.length];
+        // Producers offering right now, or RETIRED once the queue is no longer mapped
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile Player player;
+        private volatile long lastOffer;
+        // Token bucket, only touched by the ticking thread
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+
+        private PlayerQueue() {
+            for (int i = 0; i < lanes.length; i++) lanes[i] = new Lane();
+        }
+
+        private void drain(long now) {
+            Player target = player;
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+
+            for (Message message; (message = lanes[Priority.SYSTEM.ordinal()].poll()) != null; ) {
+                deliver(target, message);
+            }
+            for (int lane = Priority.SYSTEM.ordinal() + 1; lane < lanes.length; lane++) {
+                while (tokens >= 1) {
+                    Message message = lanes[lane].poll();
+                    if (message == null) break;
+                    tokens--;
+                    deliver(target, message);
+                }
+            }
+            if (tokens < 1 && depth() > 0) deferred.increment();
+        }
+
+        private boolean isIdle(long now) {
+            return tokens >= burst && now - lastOffer > IDLE_NANOS && depth() == 0;
+        }
+
+        private boolean enter() {
+            for (int w = writers.get(); w >= 0; w = writers.get()) {
+                if (writers.compareAndSet(w, w + 1)) return true;
+            }
+            return false;
+        }
+
+        private void exit() {
+            writers.decrementAndGet();
+        }
+
+        private boolean isRetired() {
+            return writers.get() < 0;
+        }
+
+        /**
+         * Retires the queue if it is idle and no producer is inside it; producers arriving later see it
+         * retired and map a fresh one, so no message is left behind in an unmapped queue.
+         */
+        private boolean retireIfIdle(long now) {
+            if (!writers.compareAndSet(0, RETIRED)) return false;
+            if (isIdle(now)) return true;
+            writers.set(0);
+            return false;
+        }
+
+        private void deliver(Player target, Message message) {
+            int count = message.seal();
+            target.sendMessage(count > 1 ? message.text + " (x" + count + ")" : message.text);
+            sent.increment();
+        }
+
+        private int depth() {
+            int depth = 0;
+            for (Lane lane : lanes) depth += lane.size.get();
+            return depth;
+        }
+    }
+
+    /**
+     * Many producers, one consumer, no locks. The lane is a linked list of messages plus a size counter for
+     * the bound. A producer appends by swinging {@code tail} from the message it compared against to its own,
+     * and starts over if another producer got there first, so a message is only ever folded into the one
+     * directly before it. {@link Message#seal()} settles a fold racing with delivery.
+     */
+    private final class Lane {
+
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicReference<Message> tail;
+        // Last message handed to the consumer, only touched by the ticking thread
+        private Message head = new Message(null);
+
+        private Lane() {
+            head.seal();
+            tail = new AtomicReference<>(head);
+        }
+
+        private boolean offer(String text) {
+            Message message = null;
+            for (;;) {
+                Message last = tail.get();
+                if (last.text != null && last.text.equals(text) && last.increment()) {
+                    enqueued.increment();
+                    coalesced.increment();
+                    return true;
+                }
+
+                if (size.incrementAndGet() > capacity) {
+                    size.decrementAndGet();
+                    dropped.increment();
+                    return false;
+                }
+                if (message == null) message = new Message(text);
+                if (tail.compareAndSet(last, message)) {
+                    last.next = message;
+                    enqueued.increment();
+                    return true;
+                }
+                size.decrementAndGet();
+            }
+        }
+
+        /**
+         * @return the next message, or {@code null} if there is none or its producer has not linked it yet
+         */
+        private Message poll() {
+            Message next = head.next;
+            if (next == null) return null;
+            head = next;
+            size.decrementAndGet();
+            return next;
+        }
+    }
+
+    private static final class Message {
+
+        private static final int SEALED = -1;
+
+        private final String text;
+        private final AtomicInteger count = new AtomicInteger(1);
+        private volatile Message next;
+
+        private Message(String text) {
+            this.text = text;
+        }
+
+        /**
+         * @return {@code false} once the message was taken for delivery
+         */
+        private boolean increment() {
+            for (int c = count.get(); c != SEALED; c = count.get()) {
+                if (count.compareAndSet(c, c + 1)) return true;
+            }
+            return false;
+        }
+
+        private int seal() {
+            return count.getAndSet(SEALED);
+        }
+    }
+
+    public static final class Builder {
+
+        private int capacity = 64;
+        private double messagesPerSecond = 10;
+        private int burst = 20;
+
+        private Builder() {}
+
+        /** Messages a lane holds per player before new ones are dropped. */
+        public Builder capacity(int messages) { this.capacity = messages; return this; }
+        /** Sustained rate of non-system messages per player. */
+        public Builder rate(double messagesPerSecond) { this.messagesPerSecond = messagesPerSecond; return this; }
+        /** Non-system messages a player can receive at once after being quiet. */
+        public Builder burst(int messages) { this.burst = messages; return this; }
+
+        public OutboundMessages build() {
+            if (capacity <= 0 || messagesPerSecond <= 0 || burst <= 0)
+                throw new IllegalStateException("OutboundMessages limits must be positive.");
+            return new OutboundMessages(this);
+        }
+    }
+}
@@ -4,4 +4,25 @@ public interface Player {
     String getName();
     void sendMessage(String message);
     void teleport(String location);
+
+    /**
+     * Used by {@link Broadcast#permission(String)}. Implementations that predate it throw, so a
+     * permission-filtered broadcast counts their players as failed instead of guessing an answer.
+     *
+     * @throws UnsupportedOperationException if the implementation does not support permissions
+     */
+    default boolean hasPermission(String permission) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not implement hasPermission");
+    }
+
+    /**
+     * Used by {@link Broadcast#world(String)} and {@code %player_world%}. Like {@link #hasPermission},
+     * implementations that predate it throw; the placeholder then stays as written.
+     *
+     * @return the name of the player's world, or {@code null} if unknown
+     * @throws UnsupportedOperationException if the implementation does not track worlds
+     */
+    default String getWorld() {
+        throw new UnsupportedOperationException(getClass().getName() + " does not implement getWorld");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package dev.team.hytalib.utils;
+
+import dev.team.hytalib.messaging.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A message parsed once into literal text and placeholders, so rendering is a single pass of appends
+ * into one builder sized up front. Colour codes ({@code &a}, {@code &l}, ...) are translated to
+ * {@code §} while compiling; {@code %%} is a literal percent sign.
+ * <p>
+ * Placeholders are {@code %namespace_key%} or {@code %namespace%}, resolved through {@link Placeholders}.
+ * Unknown placeholders, and those whose resolver returns {@code null}, are rendered as written.
+ * <p>
+ * Templates are immutable and thread-safe; {@link #compile} caches them by source text.
+ */
+public final class MessageTemplate {
+
+    private static final int MAX_CACHED = 4096;
+    private static final int PLACEHOLDER_ESTIMATE = 16;
+
+    private static final Map<String, MessageTemplate> COLOURED = new ConcurrentHashMap<>();
+    private static final Map<String, MessageTemplate> PLAIN = new ConcurrentHashMap<>();
+    private static final MessageTemplate EMPTY = new MessageTemplate("", new String[]{""}, new Placeholder[0]);
+
+    private final String source;
+    /** {@code literals[i]} precedes {@code placeholders[i]}; one more literal than placeholders. */
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int sizeHint;
+
+    private MessageTemplate(String source, String[] literals, Placeholder[] placeholders) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        int length = 0;
+        for (String literal : literals) length += literal.length();
+        this.sizeHint = length + placeholders.length * PLACEHOLDER_ESTIMATE;
+    }
+
+    /**
+     * @return the compiled template, from the cache when this text was compiled before
+     */
+    public static MessageTemplate compile(String message) {
+        return compile(message, true);
+    }
+
+    /**
+     * Like {@link #compile(String)}, but leaves {@code &} codes untouched.
+     */
+    public static MessageTemplate compilePlain(String message) {
+        return compile(message, false);
+    }
+
+    private static MessageTemplate compile(String message, boolean colours) {
+        if (message == null || message.isEmpty()) return EMPTY;
+
+        Map<String, MessageTemplate> cache = colours ? COLOURED : PLAIN;
+        MessageTemplate template = cache.get(message);
+        if (template != null) return template;
+
+        template = parse(message, colours);
+        // Past the limit the text is most likely generated per call; don't let it grow the cache
+        if (cache.size() < MAX_CACHED) cache.putIfAbsent(message, template);
+        return template;
+    }
+
+    private static MessageTemplate parse(String source, boolean colours) {
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(source.length());
+
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+
+            if (colours && c == '&' && i + 1 < length && isColourCode(source.charAt(i + 1))) {
+                literal.append('§').append(Character.toLowerCase(source.charAt(i + 1)));
+                i += 2;
+                continue;
+            }
+
+            if (c == '%') {
+                if (i + 1 < length && source.charAt(i + 1) == '%') {
+                    literal.append('%');
+                    i += 2;
+                    continue;
+                }
+                int end = i + 1;
+                while (end < length && isNameChar(source.charAt(end))) end++;
+                if (end > i + 1 && end < length && source.charAt(end) == '%') {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    placeholders.add(Placeholder.of(source.substring(i + 1, end)));
+                    i = end + 1;
+                    continue;
+                }
+            }
+
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+
+        return new MessageTemplate(source, literals.toArray(String[]::new), placeholders.toArray(Placeholder[]::new));
+    }
+
+    private static boolean isColourCode(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+                || (c >= 'k' && c <= 'o') || (c >= 'K' && c <= 'O') || c == 'r' || c == 'R';
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '-' || c == '.' || c == ':';
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * @return {@code true} if rendering always gives the same text
+     */
+    public boolean isConstant() {
+        return placeholders.length == 0;
+    }
+
+    /**
+     * Renders with global placeholders only.
+     */
+    public String render() {
+        return render(null, null);
+    }
+
+    public String render(Player player) {
+        return render(player, null);
+    }
+
+    /**
+     * @param player the viewer for player-specific resolvers; may be {@code null}
+     * @param values values by full placeholder name ({@code "kills"} for {@code %kills%}), checked
+     *               before the resolvers; may be {@code null}
+     */
+    public String render(Player player, Map<String, ?> values) {
+        if (placeholders.length == 0) return literals[0];
+
+        StringBuilder out = new StringBuilder(sizeHint);
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            placeholders[i].appendTo(out, player, values);
+        }
+        return out.append(literals[placeholders.length]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private record Placeholder(String raw, String name, String namespace, String key) {
+
+        static Placeholder of(String name) {
+            int split = name.indexOf('_');
+            return split < 0
+                    ? new Placeholder('%' + name + '%', name, name, "")
+                    : new Placeholder('%' + name + '%', name, name.substring(0, split), name.substring(split + 1));
+        }
+
+        void appendTo(StringBuilder out, Player player, Map<String, ?> values) {
+            Object value = values == null ? null : values.get(name);
+            if (value == null) {
+                PlaceholderResolver resolver = Placeholders.resolver(namespace);
+                value = resolver == null ? null : resolver.resolve(player, key);
+            }
+            if (value instanceof String text) out.append(text);
+            else out.append(value != null ? value : raw);
+        }
+    }
+}
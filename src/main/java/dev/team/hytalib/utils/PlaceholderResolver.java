@@ -0,0 +1,19 @@
+package dev.team.hytalib.utils;
+
+import dev.team.hytalib.messaging.Player;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Resolves the placeholders of one namespace: {@code %namespace_key%} calls {@code resolve(player, "key")},
+ * {@code %namespace%} calls it with an empty key.
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+
+    /**
+     * @param player the viewer, or {@code null} when rendering without one
+     * @return the value, or {@code null} to leave the placeholder as written
+     */
+    String resolve(Player player, String key);
+}
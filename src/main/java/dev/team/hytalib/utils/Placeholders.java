@@ -0,0 +1,56 @@
+package dev.team.hytalib.utils;
+
+import dev.team.hytalib.messaging.Player;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Registry of {@link PlaceholderResolver}s by namespace, used by {@link MessageTemplate}.
+ * The {@code player} namespace is built in: {@code %player%}, {@code %player_name%} and {@code %player_world%}.
+ */
+public final class Placeholders {
+
+    private static final Map<String, PlaceholderResolver> RESOLVERS = new ConcurrentHashMap<>();
+
+    static {
+        register("player", (player, key) -> {
+            if (player == null) return null;
+            return switch (key) {
+                case "", "name" -> player.getName();
+                case "world" -> world(player);
+                default -> null;
+            };
+        });
+    }
+
+    private Placeholders() {}
+
+    private static String world(Player player) {
+        try {
+            return player.getWorld();
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registers (or replaces) the resolver of {@code namespace}. Namespaces are case-sensitive
+     * and may not contain {@code _}.
+     */
+    public static void register(String namespace, PlaceholderResolver resolver) {
+        if (namespace == null || namespace.isEmpty() || namespace.indexOf('_') >= 0)
+            throw new IllegalArgumentException("Invalid placeholder namespace: " + namespace);
+        RESOLVERS.put(namespace, resolver);
+    }
+
+    public static void unregister(String namespace) {
+        RESOLVERS.remove(namespace);
+    }
+
+    static PlaceholderResolver resolver(String namespace) {
+        return RESOLVERS.get(namespace);
+    }
+}
@@ -1,23 +1,40 @@
-package dev.team.hytalib.utils;
-
-/**
- * HytaLab Studio code @ 2025
- */
-public class StringUtils {
-
-    public static String format(String message) {
-        message = setPlaceholders(message);
-
-        /*
-         * TODO: add color support once its released.
-         */
-        return message;
-    }
-
-    public static String setPlaceholders(String message) {
-        /*
-         * TODO: add some sort of placeholder system eventually.
-         */
-        return message;
-    }
-}
\ No newline at end of file
+package dev.team.hytalib.utils;
+
+import dev.team.hytalib.messaging.Player;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * Shortcuts over {@link MessageTemplate}; messages are compiled once and cached.
+ */
+public class StringUtils {
+
+    /**
+     * Resolves global placeholders and translates {@code &} colour codes.
+     */
+    public static String format(String message) {
+        if (message == null) return null;
+        return MessageTemplate.compile(message).render();
+    }
+
+    /**
+     * Resolves placeholders for {@code player} and translates {@code &} colour codes.
+     */
+    public static String format(Player player, String message) {
+        if (message == null) return null;
+        return MessageTemplate.compile(message).render(player);
+    }
+
+    /**
+     * Resolves global placeholders; colour codes are left as written.
+     */
+    public static String setPlaceholders(String message) {
+        if (message == null) return null;
+        return MessageTemplate.compilePlain(message).render();
+    }
+
+    public static String setPlaceholders(Player player, String message) {
+        if (message == null) return null;
+        return MessageTemplate.compilePlain(message).render(player);
+    }
+}
@@ -0,0 +1,84 @@
+package dev.team.hytalib.db;
+
+import redis.clients.jedis.Jedis;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HytaLab Studio code @ 2025
+ * <p>
+ * A throwaway {@code redis-server} on a free port, without persistence. Tests that need Redis skip
+ * themselves when no {@code redis-server} binary is on the PATH (or at {@code REDIS_SERVER}).
+ */
+final class LocalRedisServer implements AutoCloseable {
+
+    private static final long STARTUP_TIMEOUT_MS = 5000;
+
+    private final Process process;
+    private final int port;
+
+    private LocalRedisServer(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    /**
+     * @return the running server, or {@code null} if Redis is not installed
+     */
+    static LocalRedisServer start() throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        String binary = System.getenv().getOrDefault("REDIS_SERVER", "redis-server");
+        Process process;
+        try {
+            process = new ProcessBuilder(binary, "--port", Integer.toString(port), "--bind", "127.0.0.1",
+                    "--save", "", "--appendonly", "no")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+        } catch (IOException e) {
+            return null;
+        }
+
+        LocalRedisServer server = new LocalRedisServer(process, port);
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) return null;
+            try (Jedis jedis = server.client()) {
+                jedis.ping();
+                return server;
+            } catch (RuntimeException notReady) {
+                Thread.sleep(50);
+            }
+        }
+        server.close();
+        throw new IOException("redis-server did not start within " + STARTUP_TIMEOUT_MS + " ms");
+    }
+
+    int port() {
+        return port;
+    }
+
+    /**
+     * A direct client for assertions the library does not expose, such as TTLs.
+     */
+    Jedis client() {
+        return new Jedis("127.0.0.1", port);
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.team.hytalib.db;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RedisDatabaseImplTest {
+
+    private static LocalRedisServer server;
+    private static RedisDatabase redis;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = LocalRedisServer.start();
+        assumeTrue(server != null, "redis-server is not installed");
+
+        redis = (RedisDatabase) DatabaseBuilder.create()
+                .type(DatabaseTypes.REDIS)
+                .host("127.0.0.1")
+                .port(server.port())
+                .maxPoolSize(4)
+                .build();
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        if (redis != null) redis.close();
+        if (server != null) server.close();
+    }
+
+    @BeforeEach
+    void flush() {
+        try (Jedis jedis = server.client()) {
+            jedis.flushAll();
+        }
+    }
+
+    @Test
+    void incrementWithinAddsInsideRange() {
+        assertEquals(OptionalLong.of(5), redis.incrementWithin("coins", 5, 0, 10).join());
+        assertEquals(OptionalLong.of(2), redis.incrementWithin("coins", -3, 0, 10).join());
+        assertEquals(Optional.of("2"), redis.get("coins").join());
+    }
+
+    @Test
+    void incrementWithinLeavesCounterOutsideRange() {
+        redis.set("coins", "8").join();
+
+        assertEquals(OptionalLong.empty(), redis.incrementWithin("coins", 5, 0, 10).join());
+        assertEquals(OptionalLong.empty(), redis.incrementWithin("coins", -9, 0, 10).join());
+        assertEquals(Optional.of("8"), redis.get("coins").join());
+    }
+
+    @Test
+    void incrementWithinDoesNotCreateKeyOutsideRange() {
+        assertEquals(OptionalLong.empty(), redis.incrementWithin("coins", 20, 0, 10).join());
+        assertEquals(Optional.empty(), redis.get("coins").join());
+    }
+
+    @Test
+    void incrementWithinKeepsIntegerEncoding() {
+        long large = 1_000_000_000_000_000L;
+        redis.set("balance", Long.toString(large)).join();
+
+        assertEquals(OptionalLong.of(large + 1), redis.incrementWithin("balance", 1, 0, Long.MAX_VALUE).join());
+        assertEquals(Optional.of(Long.toString(large + 1)), redis.get("balance").join());
+        // Still usable by plain INCRBY, which rejects float strings
+        assertEquals(large + 2, redis.increment("balance", 1).join());
+    }
+
+    @Test
+    void incrementWithinKeepsTtl() {
+        redis.set("limit", "1", Duration.ofMinutes(1)).join();
+
+        redis.incrementWithin("limit", 1, 0, 10).join();
+        redis.incrementWithin("limit", 100, 0, 10).join();
+
+        try (Jedis jedis = server.client()) {
+            assertTrue(jedis.pttl("limit") > 0, "TTL was dropped");
+        }
+    }
+
+    @Test
+    void incrementWithTtlSetsExpiryOnce() throws InterruptedException {
+        assertEquals(1L, redis.increment("window", 1, Duration.ofSeconds(30)).join());
+        long first;
+        try (Jedis jedis = server.client()) {
+            first = jedis.pttl("window");
+        }
+        Thread.sleep(20);
+        assertEquals(3L, redis.increment("window", 2, Duration.ofSeconds(30)).join());
+
+        try (Jedis jedis = server.client()) {
+            long second = jedis.pttl("window");
+            assertTrue(second > 0 && second <= first, "expiry was reset");
+        }
+    }
+
+    @Test
+    void scriptsReloadAfterScriptFlush() {
+        redis.increment("window", 1, Duration.ofSeconds(30)).join();
+        try (Jedis jedis = server.client()) {
+            jedis.scriptFlush();
+        }
+
+        assertEquals(2L, redis.increment("window", 1, Duration.ofSeconds(30)).join());
+    }
+
+    @Test
+    void getAllSkipsMissingKeys() {
+        redis.setAll(Map.of("a", "1", "b", "2")).join();
+
+        assertEquals(Map.of("a", "1", "b", "2"), redis.getAll(List.of("a", "b", "c")).join());
+    }
+
+    @Test
+    void getHashesMapsMissingKeysToEmptyHash() {
+        redis.setHashes(Map.of("player:1", Map.of("name", "Steve"))).join();
+
+        Map<String, Map<String, String>> hashes = redis.getHashes(List.of("player:1", "player:2")).join();
+        assertEquals(Map.of("name", "Steve"), hashes.get("player:1"));
+        assertEquals(Map.of(), hashes.get("player:2"));
+    }
+}